@@ -0,0 +1,140 @@
+package mipssim.swain91.git;
+import java.util.List;
+
+/**
+ * The shift, subtract, compare, multiply and divide instructions, added to
+ * the core set through {@link InstructionExtension}:
+ *
+ * <ul>
+ * <li> <code>sll</code> and <code>srl</code> shift <code>$t</code> left or right
+ * by the shift amount into <code>$d</code>, filling with zeros.
+ * <li> <code>sub</code> stores <code>$s - $t</code> in <code>$d</code>.
+ * <li> <code>slt</code> stores 1 in <code>$d</code> if <code>$s</code> is less
+ * than <code>$t</code>, signed, otherwise 0.
+ * <li> <code>mult</code> stores the 64-bit product of <code>$s</code> and
+ * <code>$t</code> in HI and LO. <code>div</code> stores their quotient in LO
+ * and remainder in HI, and leaves both unchanged when <code>$t</code> is 0.
+ * <li> <code>mfhi</code> and <code>mflo</code> copy HI or LO to <code>$d</code>.
+ * </ul>
+ *
+ * <p>
+ * The function codes follow the numbering of the core register instructions,
+ * which read the hexadecimal MIPS function code as a decimal number, as
+ * <code>add</code> is 20 for 0x20. Where the MIPS code has a letter digit the
+ * number is its value instead, <code>div</code> is 26 for 0x1a and
+ * <code>slt</code> is 42 for 0x2a.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class ArithmeticExtension implements InstructionExtension {
+
+    @Override
+    public List<ExtensionInstruction> instructions() {
+        return List.of(new ShiftLeft(), new ShiftRight(), new Subtract(), new SetLessThan(),
+                new Multiply(), new Divide(), new MoveFromHi(), new MoveFromLo());
+    }
+
+    private static final class ShiftLeft extends ExtensionInstruction {
+
+        ShiftLeft() {
+            super("sll", 0);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            computer.setRegister(destination, computer.getRegister(target) << shift);
+        }
+    }
+
+    private static final class ShiftRight extends ExtensionInstruction {
+
+        ShiftRight() {
+            super("srl", 2);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            computer.setRegister(destination, computer.getRegister(target) >>> shift);
+        }
+    }
+
+    private static final class Subtract extends ExtensionInstruction {
+
+        Subtract() {
+            super("sub", 22);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            computer.setRegister(destination, computer.getRegister(source) - computer.getRegister(target));
+        }
+    }
+
+    private static final class SetLessThan extends ExtensionInstruction {
+
+        SetLessThan() {
+            super("slt", 42);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            computer.setRegister(destination, computer.getRegister(source) < computer.getRegister(target) ? 1 : 0);
+        }
+    }
+
+    private static final class Multiply extends ExtensionInstruction {
+
+        Multiply() {
+            super("mult", 18);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            long product = (long) computer.getRegister(source) * computer.getRegister(target);
+            computer.setHi((int) (product >>> 32));
+            computer.setLo((int) product);
+        }
+    }
+
+    private static final class Divide extends ExtensionInstruction {
+
+        Divide() {
+            super("div", 26);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            int divisor = computer.getRegister(target);
+            if (divisor == 0)
+                return;
+            int dividend = computer.getRegister(source);
+            computer.setLo(dividend / divisor);
+            computer.setHi(dividend % divisor);
+        }
+    }
+
+    private static final class MoveFromHi extends ExtensionInstruction {
+
+        MoveFromHi() {
+            super("mfhi", 10);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            computer.setRegister(destination, computer.getHi());
+        }
+    }
+
+    private static final class MoveFromLo extends ExtensionInstruction {
+
+        MoveFromLo() {
+            super("mflo", 12);
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int shift) {
+            computer.setRegister(destination, computer.getLo());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ArithmeticExtension} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class ArithmeticExtensionTest {
+
+	private static final String[] PROGRAM = {
+			"00100000000000011111111111111001", // addi $1, $0, -7
+			"00100000000000100000000000000011", // addi $2, $0, 3
+			"00000000000000100001100100000000", // sll  $3, $2, 4
+			"00000000000000010010011100000010", // srl  $4, $1, 28
+			"00000000010000010010100000010110", // sub  $5, $2, $1
+			"00000000001000100011000000101010", // slt  $6, $1, $2
+			"00000000001000100000000000010010", // mult $1, $2
+			"00000000000000000011100000001100", // mflo $7
+			"00000000000000000100000000001010", // mfhi $8
+			"00000000001000100000000000011010", // div  $1, $2
+			"00000000000000000100100000001100", // mflo $9
+			"00000000000000000101000000001010", // mfhi $10
+			"00000000001000000000000000011010"  // div  $1, $0
+	};
+
+	private static final String[] LOOP = {
+			"00100000000000100000001111101000", // addi $2, $0, 1000
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"00000000000000010001100001000000", // sll  $3, $1, 1
+			"00000000100000110010000000010100", // add  $4, $4, $3
+			"00010100001000100000000000000001"  // bne  $1, $2, 1
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting ArithmeticExtension.java tests...");
+	}
+
+	@Test
+	void shouldExecuteEveryInstruction() {
+		Computer test = load(PROGRAM);
+		test.run();
+
+		assertEquals(48, test.getRegister(3));
+		assertEquals(15, test.getRegister(4));
+		assertEquals(10, test.getRegister(5));
+		assertEquals(1, test.getRegister(6));
+		assertEquals(-21, test.getRegister(7));
+		assertEquals(-1, test.getRegister(8));
+		assertEquals(-2, test.getRegister(9));
+		assertEquals(-1, test.getRegister(10));
+		assertEquals(-2, test.getLo());
+		assertEquals(-1, test.getHi());
+		assertEquals(PROGRAM.length, test.getRetired());
+	}
+
+	@Test
+	void shouldKeepHiAndLoInSnapshot() {
+		Computer computer = load(PROGRAM);
+		computer.run();
+
+		Computer test = computer.fork();
+		computer.reset();
+
+		assertEquals(-1, test.getHi());
+		assertEquals(-2, test.getLo());
+		assertEquals(0, computer.getHi());
+		assertEquals(0, computer.getLo());
+	}
+
+	@Test
+	void shouldMatchInEveryTier() {
+		Computer expected = load(LOOP);
+		expected.run();
+
+		Computer tiered = load(LOOP);
+		tiered.setCompiler(new BlockCompiler(1));
+		tiered.run();
+		Computer fused = load(LOOP);
+		fused.setFuser(new InstructionFuser());
+		fused.run();
+		Computer lazy = new Computer();
+		lazy.setLazyDecoding(true);
+		for (String line : LOOP) {
+			lazy.insertWord(InstructionString.parseWord(line));
+		}
+		lazy.run();
+
+		assertEquals(1001000, expected.getRegister(4));
+		for (Computer test : new Computer[] { tiered, fused, lazy }) {
+			assertEquals(expected.getRetired(), test.getRetired());
+			for (int i = 0; i < 32; i++) {
+				assertEquals(expected.getRegister(i), test.getRegister(i), "$" + i);
+			}
+		}
+	}
+
+	@Test
+	void shouldTraceDestination() {
+		Computer test = load(PROGRAM);
+		TraceRecorder trace = new TraceRecorder(PROGRAM.length);
+		test.setTrace(trace);
+		test.run();
+
+		assertEquals(48, trace.getValue(2));
+	}
+
+	@Test
+	void shouldNotSweepExtension() {
+		assertThrows(IllegalArgumentException.class, () -> new LaneSweep(load(PROGRAM), 4));
+	}
+
+	private static Computer load(String[] program) {
+		Computer computer = new Computer();
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		return computer;
+	}
+}
@@ -0,0 +1,62 @@
+package mipssim.swain91.git;
+import java.util.Arrays;
+
+/**
+ * Data memory held in a single <code>int[]</code>. This is the default memory of
+ * a {@link Computer}, with 64 words.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class ArrayMemory implements DataMemory {
+
+    private final int[] words;
+
+    public ArrayMemory(int size) {
+        this.words = new int[size];
+    }
+
+    private ArrayMemory(int[] words) {
+        this.words = words;
+    }
+
+    /**
+     * @return	the backing array; writes to it are writes to memory
+     */
+    public int[] getWords() {
+        return this.words;
+    }
+
+    @Override
+    public int size() {
+        return words.length;
+    }
+
+    @Override
+    public boolean contains(int address) {
+        return address >= 0 && address < words.length;
+    }
+
+    @Override
+    public int load(int address) {
+        return words[address];
+    }
+
+    @Override
+    public void store(int address, int value) {
+        words[address] = value;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * Copies the words, which is cheap for the small memories this class is meant for.
+     */
+    @Override
+    public ArrayMemory fork() {
+        return new ArrayMemory(words.clone());
+    }
+}
@@ -0,0 +1,383 @@
+package mipssim.swain91.git;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.management.ObjectName;
+import java.util.zip.CRC32C;
+
+/**
+ * Runs a directory or manifest of programs on a {@link SimulationPool} and
+ * streams one result record per program as soon as it finishes.
+ *
+ * <p>
+ * A directory is walked recursively and every regular file in it is run. Any
+ * other path is read as a manifest with one program path per line, relative to
+ * the manifest's directory; blank lines and lines starting with <code>#</code>
+ * are skipped. Files ending in <code>.mipsb</code> are loaded as a
+ * {@link ProgramImage}, anything else as binary instruction lines.
+ *
+ * <p>
+ * Each record holds the program path, its status, the retired instruction
+ * count, the wall time in nanoseconds, a CRC-32C digest of the data memory and
+ * the final registers, written as JSON Lines or CSV. Records are written in the
+ * order programs finish, not the order they were listed.
+ *
+ * <p>
+ * Programs are listed lazily and only a bounded number of them are loaded at
+ * once, so memory use does not grow with the size of the batch. An instruction
+ * budget and a timeout per program stop runaway programs, which are reported
+ * with a <code>budget_exhausted</code> or <code>timed_out</code> status.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class BatchRunner {
+
+    /**
+     * The format of the result records.
+     */
+    public enum Format { JSONL, CSV }
+
+    private final SimulationPool pool;
+    private final Format format;
+    private final Writer out;
+    private final int permits;
+    private final Semaphore inFlight;
+    private long budget = Long.MAX_VALUE;
+    private long timeoutNanos = Long.MAX_VALUE;
+    private IOException failure;
+
+    /**
+     * @param pool		the pool that loads and runs the programs
+     * @param format	the format of the result records
+     * @param out		where the result records are written
+     */
+    public BatchRunner(SimulationPool pool, Format format, Writer out) {
+        this.pool = pool;
+        this.format = format;
+        this.out = out;
+        this.permits = pool.getParallelism() * 2;
+        this.inFlight = new Semaphore(permits);
+    }
+
+    /**
+     * @param newBudget	the most instructions each program may execute
+     */
+    public void setBudget(long newBudget) {
+        this.budget = newBudget;
+    }
+
+    /**
+     * @param timeout	the longest each program may run
+     * @param unit		the unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Runs every program and waits for all of them to finish. A program that
+     * cannot be loaded is reported with an <code>error</code> status and does
+     * not stop the batch.
+     *
+     * @param programs	the program files to run
+     * @return			the number of programs run
+     * @throws IOException	if a result record could not be written
+     */
+    public long run(Iterator<Path> programs) throws IOException {
+        if (format == Format.CSV)
+            write(csvHeader());
+        long count = 0;
+        while (programs.hasNext()) {
+            Path program = programs.next();
+            inFlight.acquireUninterruptibly();
+            pool.supply(() -> simulate(program)).whenComplete((result, e) -> {
+                try {
+                    if (e != null)
+                        throw new IOException("Failed to run " + program, e);
+                    write(format == Format.CSV ? result.toCsv() : result.toJson());
+                } catch (IOException io) {
+                    fail(io);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            count++;
+        }
+        inFlight.acquireUninterruptibly(permits);
+        inFlight.release(permits);
+        synchronized (this) {
+            if (failure != null)
+                throw failure;
+            out.flush();
+        }
+        return count;
+    }
+
+    /**
+     * Lists the programs of a directory or manifest.
+     *
+     * @param source	a directory of programs or a manifest file
+     * @return			the program files, which must be closed after use
+     * @throws IOException	if the directory or manifest cannot be read
+     */
+    public static Stream<Path> programs(Path source) throws IOException {
+        if (Files.isDirectory(source))
+            return Files.walk(source).filter(Files::isRegularFile);
+        Path base = source.toAbsolutePath().getParent();
+        BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+        return reader.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(base::resolve)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Loads and runs one program on a new {@link Computer}, within the budget
+     * and timeout.
+     *
+     * @param program	the program file
+     * @return			the result of the run
+     */
+    private Result simulate(Path program) {
+        long start = System.nanoTime();
+        Computer computer = new Computer();
+        computer.setLazyDecoding(true);
+        RunStatus status;
+        try {
+            if (program.toString().endsWith(".mipsb")) {
+                ProgramImage.read(program).loadInto(computer);
+            } else {
+                int[] words = MappedProgramLoader.load(program);
+                computer.load(words, words.length);
+            }
+            status = pool.run(computer, budget, timeoutNanos);
+        } catch (IOException | RuntimeException e) {
+            return new Result(program, null, e.toString(), computer, System.nanoTime() - start);
+        }
+        return new Result(program, status, null, computer, System.nanoTime() - start);
+    }
+
+    private synchronized void write(String record) throws IOException {
+        out.write(record);
+        out.write('\n');
+        out.flush();
+    }
+
+    private synchronized void fail(IOException e) {
+        if (failure == null)
+            failure = e;
+    }
+
+    private static String csvHeader() {
+        StringBuilder sb = new StringBuilder("program,status,retired,wall_ns,memory_crc32c");
+        for (int i = 0; i < 32; i++) {
+            sb.append(",r").append(i);
+        }
+        return sb.append(",error").toString();
+    }
+
+    /**
+     * The outcome of running one program.
+     */
+    static final class Result {
+
+        final Path program;
+        final RunStatus status;
+        final String error;
+        final long retired;
+        final long wallNanos;
+        final long digest;
+        final int[] registers;
+
+        Result(Path program, RunStatus status, String error, Computer computer, long wallNanos) {
+            this.program = program;
+            this.status = status;
+            this.error = error;
+            this.retired = computer.getRetired();
+            this.wallNanos = wallNanos;
+            this.digest = digest(computer.getMemory());
+            this.registers = new int[32];
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] = computer.getRegister(i);
+            }
+        }
+
+        String getStatus() {
+            if (error != null)
+                return "error";
+            else if (status == RunStatus.HALTED)
+                return "ok";
+            else
+                return status.name().toLowerCase();
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("{\"program\":");
+            quote(sb, program.toString());
+            sb.append(",\"status\":\"").append(getStatus()).append('"');
+            sb.append(",\"retired\":").append(retired);
+            sb.append(",\"wallNanos\":").append(wallNanos);
+            sb.append(",\"memoryCrc32c\":\"").append(String.format("%08x", digest)).append('"');
+            sb.append(",\"registers\":[");
+            for (int i = 0; i < registers.length; i++) {
+                if (i > 0)
+                    sb.append(',');
+                sb.append(registers[i]);
+            }
+            sb.append(']');
+            if (error != null) {
+                sb.append(",\"error\":");
+                quote(sb, error);
+            }
+            return sb.append('}').toString();
+        }
+
+        String toCsv() {
+            StringBuilder sb = new StringBuilder(256);
+            csv(sb, program.toString());
+            sb.append(',').append(getStatus());
+            sb.append(',').append(retired);
+            sb.append(',').append(wallNanos);
+            sb.append(',').append(String.format("%08x", digest));
+            for (int register : registers) {
+                sb.append(',').append(register);
+            }
+            sb.append(',');
+            if (error != null)
+                csv(sb, error);
+            return sb.toString();
+        }
+
+        /**
+         * Computes a CRC-32C of the data memory words in little-endian order.
+         */
+        private static long digest(DataMemory memory) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < memory.size(); i++) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+                buffer.putInt(memory.load(i));
+            }
+            buffer.flip();
+            crc.update(buffer);
+            return crc.getValue();
+        }
+
+        private static void quote(StringBuilder sb, String text) {
+            sb.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\')
+                    sb.append('\\').append(c);
+                else if (c < 0x20)
+                    sb.append(String.format("\\u%04x", (int) c));
+                else
+                    sb.append(c);
+            }
+            sb.append('"');
+        }
+
+        private static void csv(StringBuilder sb, String text) {
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+                sb.append(text);
+                return;
+            }
+            sb.append('"').append(text.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /**
+     * Runs a batch from the command line.
+     *
+     * <pre>
+     * BatchRunner &lt;directory|manifest&gt; [--csv] [--threads n] [--out file]
+     *     [--budget instructions] [--timeout milliseconds]
+     * </pre>
+     *
+     * Records are written to standard output unless an output file is given.
+     * Programs run without a budget or timeout unless one is given. The pool's
+     * execution counters are published over JMX while the batch runs, as
+     * <code>mipssim.swain91.git:type=ExecutionCounters,name="batch"</code>.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BatchRunner <directory|manifest> [--csv] [--threads n] [--out file]"
+                    + " [--budget instructions] [--timeout milliseconds]");
+            System.exit(2);
+        }
+        Format format = Format.JSONL;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path output = null;
+        long budget = Long.MAX_VALUE;
+        long timeout = Long.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--csv"))
+                format = Format.CSV;
+            else if (args[i].equals("--threads") && i + 1 < args.length)
+                threads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--out") && i + 1 < args.length)
+                output = Paths.get(args[++i]);
+            else if (args[i].equals("--budget") && i + 1 < args.length)
+                budget = Long.parseLong(args[++i]);
+            else if (args[i].equals("--timeout") && i + 1 < args.length)
+                timeout = Long.parseLong(args[++i]);
+            else
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+
+        long start = System.nanoTime();
+        long count;
+        // Standard output is flushed but not closed, so the process can still write to it
+        Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+        try (SimulationPool pool = new SimulationPool(threads);
+                Stream<Path> programs = programs(Paths.get(args[0]))) {
+            BatchRunner runner = new BatchRunner(pool, format, out);
+            runner.setBudget(budget);
+            runner.setTimeout(timeout, TimeUnit.MILLISECONDS);
+            pool.setCounting(true);
+            ObjectName mbean = ExecutionCounters.register(pool.getCounters(), "batch");
+            try {
+                count = runner.run(programs.iterator());
+            } finally {
+                ExecutionCounters.unregister(mbean);
+            }
+            System.err.printf("%d programs, %,d instructions in %.3f s (%,.0f instructions per second)%n", count,
+                    pool.getCounters().getRetired(), (System.nanoTime() - start) / 1e9,
+                    pool.getCounters().getInstructionsPerSecond());
+        } finally {
+            if (output == null)
+                out.flush();
+            else
+                out.close();
+        }
+    }
+}
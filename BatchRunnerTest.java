@@ -0,0 +1,129 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BatchRunner} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class BatchRunnerTest {
+
+	private static final String LOOP = "00100000000000100000000000001010\n"
+			+ "00100000001000010000000000000001\n"
+			+ "00010100001000100000000000000001\n";
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting BatchRunner.java tests...");
+	}
+	
+	@Test
+	void shouldStreamJsonRecords() throws IOException {
+		Path directory = directory();
+		for (int i = 0; i < 20; i++) {
+			write(directory.resolve("loop" + i + ".txt"), LOOP);
+		}
+		
+		String[] lines = run(directory, BatchRunner.Format.JSONL);
+		
+		assertEquals(20, lines.length);
+		for (String line : lines) {
+			assertTrue(line.contains("\"status\":\"ok\""), line);
+			assertTrue(line.contains("\"retired\":21,"), line);
+			assertTrue(line.contains("\"registers\":[0,10,10,0,"), line);
+		}
+	}
+	
+	@Test
+	void shouldReportMalformedProgram() throws IOException {
+		Path directory = directory();
+		write(directory.resolve("loop.txt"), LOOP);
+		write(directory.resolve("bad.txt"), "0010\n");
+		
+		String[] lines = run(directory, BatchRunner.Format.CSV);
+		
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].startsWith("program,status,retired,wall_ns,memory_crc32c,r0,r1,"));
+		assertEquals(1, Arrays.stream(lines).filter(line -> line.contains(",error,0,")).count());
+		assertEquals(1, Arrays.stream(lines).filter(line -> line.contains(",ok,21,")).count());
+	}
+	
+	@Test
+	void shouldStopRunawayProgram() throws IOException {
+		Path directory = directory();
+		write(directory.resolve("loop.txt"), LOOP);
+		write(directory.resolve("runaway.txt"), "00001000000000000000000000000000\n");
+		
+		StringWriter out = new StringWriter();
+		try (SimulationPool pool = new SimulationPool(2); Stream<Path> programs = BatchRunner.programs(directory)) {
+			BatchRunner test = new BatchRunner(pool, BatchRunner.Format.JSONL, out);
+			test.setBudget(1000000);
+			test.run(programs.iterator());
+		}
+		String[] lines = out.toString().split("\n");
+		
+		assertEquals(2, lines.length);
+		assertEquals(1, Arrays.stream(lines).filter(line -> line.contains("\"status\":\"budget_exhausted\",\"retired\":1000000,")).count());
+		assertEquals(1, Arrays.stream(lines).filter(line -> line.contains("\"status\":\"ok\"")).count());
+	}
+	
+	@Test
+	void shouldReadManifest() throws IOException {
+		Path directory = directory();
+		write(directory.resolve("loop.txt"), LOOP);
+		new ProgramImage(0, null, new int[] { 0x2001002a }, new int[0]).write(directory.resolve("image.mipsb"));
+		directory.resolve("image.mipsb").toFile().deleteOnExit();
+		Path manifest = directory.resolve("programs.list");
+		write(manifest, "# regression suite\nloop.txt\n\nimage.mipsb\n");
+		
+		String[] lines = run(manifest, BatchRunner.Format.JSONL);
+		
+		assertEquals(2, lines.length);
+		assertEquals(1, Arrays.stream(lines).filter(line -> line.contains("\"registers\":[0,42,0,")).count());
+	}
+	
+	@Test
+	void shouldDigestMemory() {
+		Computer first = new Computer();
+		Computer second = new Computer();
+		second.getMemory().store(3, 7);
+		
+		BatchRunner.Result a = new BatchRunner.Result(Path.of("a"), RunStatus.HALTED, null, first, 0);
+		BatchRunner.Result b = new BatchRunner.Result(Path.of("b"), RunStatus.HALTED, null, second, 0);
+		
+		assertTrue(a.digest != b.digest);
+	}
+	
+	private static String[] run(Path source, BatchRunner.Format format) throws IOException {
+		StringWriter out = new StringWriter();
+		try (SimulationPool pool = new SimulationPool(2); Stream<Path> programs = BatchRunner.programs(source)) {
+			new BatchRunner(pool, format, out).run(programs.iterator());
+		}
+		return out.toString().split("\n");
+	}
+	
+	private static Path directory() throws IOException {
+		Path directory = Files.createTempDirectory("batch");
+		directory.toFile().deleteOnExit();
+		return directory;
+	}
+	
+	private static void write(Path file, String contents) throws IOException {
+		Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+		file.toFile().deleteOnExit();
+	}
+}
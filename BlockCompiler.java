@@ -0,0 +1,574 @@
+package mipssim.swain91.git;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The second tier of execution for a {@link Computer}. The computer interprets
+ * cold code and tells the compiler every time it enters a basic block, which
+ * runs from the entry slot up to and including the next <code>beq</code>,
+ * <code>bne</code> or <code>jump</code>. Once a block has been entered
+ * {@link #getThreshold()} times it is compiled to JVM bytecode and defined as a
+ * hidden class, and the computer runs the compiled block instead of
+ * interpreting it.
+ *
+ * <p>
+ * A compiled block reads the registers it uses into locals once, runs every
+ * instruction on the locals, and writes the registers it changed back before
+ * it branches. If the data memory throws, an exception handler writes them
+ * back before the exception leaves the block, so the registers hold what the
+ * instructions before the failing access wrote, as in the interpreter. A
+ * <code>jr</code> ends the block before it, since its target is
+ * only known at run time, and is always interpreted, as are the instructions
+ * of an {@link InstructionExtension}, after which a new block starts. The
+ * generated code performs the same <code>int</code> arithmetic, memory bounds
+ * checks and branch target checks as the interpreter, so a program produces
+ * the same registers, memory and retired instruction count in either tier.
+ *
+ * <p>
+ * Compiled blocks belong to one program. The compiler drops them when the
+ * computer's program changes, by loading more instructions or restoring a
+ * snapshot. A compiler should be attached to one computer at a time, see
+ * {@link Computer#setCompiler(BlockCompiler)}.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class BlockCompiler {
+
+    private static final int DEFAULT_THRESHOLD = 1000;
+
+    /**
+     * The most instructions in one compiled block, which keeps the generated
+     * method well under the size the JVM's own JIT refuses to compile.
+     */
+    static final int MAX_BLOCK = 128;
+
+    /**
+     * Marks a block entry that is always interpreted, one that starts at a
+     * <code>jr</code>.
+     */
+    static final CompiledBlock INTERPRETED = new CompiledBlock() {
+        @Override
+        int execute(int[] gpr, DataMemory memory) {
+            throw new IllegalStateException("Block cannot be compiled");
+        }
+    };
+
+    private final int threshold;
+    private int[] program;
+    private int programLength;
+    private int[] entries;
+    private CompiledBlock[] blocks;
+    private long compiledBlocks = 0;
+    private long compiledInstructions = 0;
+
+    /**
+     * Creates a compiler with the threshold from the
+     * <code>mipssim.jitThreshold</code> system property, 1000 by default.
+     */
+    public BlockCompiler() {
+        this(Integer.getInteger("mipssim.jitThreshold", DEFAULT_THRESHOLD));
+    }
+
+    /**
+     * @param threshold	the number of entries after which a block is compiled, at least 1
+     */
+    public BlockCompiler(int threshold) {
+        if (threshold < 1)
+            throw new IllegalArgumentException("Invalid compile threshold " + threshold);
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * @return	the number of blocks compiled so far, including ones since dropped
+     */
+    public long getCompiledBlocks() {
+        return this.compiledBlocks;
+    }
+
+    /**
+     * @return	the number of instructions in the blocks compiled so far
+     */
+    public long getCompiledInstructions() {
+        return this.compiledInstructions;
+    }
+
+    /**
+     * Whether each {@link Predecoder} operation ends a basic block. Every
+     * extension operation does, since it is interpreted and the code after it
+     * is a block of its own.
+     */
+    static final boolean[] ENDS_BLOCK = new boolean[Predecoder.OPERATION_COUNT];
+
+    static {
+        ENDS_BLOCK[Predecoder.JR] = true;
+        ENDS_BLOCK[Predecoder.JUMP] = true;
+        ENDS_BLOCK[Predecoder.BEQ] = true;
+        ENDS_BLOCK[Predecoder.BNE] = true;
+        Arrays.fill(ENDS_BLOCK, Predecoder.FIRST_EXTENSION, Predecoder.OPERATION_COUNT, true);
+    }
+
+    /**
+     * Returns the code cache of the computer's current program, one entry per
+     * slot, dropping the blocks of the previous program if it changed. An
+     * entry is <code>null</code> until its block reaches the threshold, then
+     * the compiled block or {@link #INTERPRETED}.
+     *
+     * @param computer	the computer about to run
+     * @return			the compiled blocks by first slot
+     */
+    CompiledBlock[] blocks(Computer computer) {
+        if (computer.getWords() != program || computer.getInstructionCount() != programLength)
+            reset(computer);
+        return blocks;
+    }
+
+    /**
+     * Counts an entry into a block that has not reached the threshold yet,
+     * and compiles it when it does.
+     *
+     * @param computer	the computer entering the block
+     * @param slot		the first instruction slot of the block
+     * @return			the new cache entry, or <code>null</code> if the block is still cold
+     */
+    CompiledBlock enter(Computer computer, int slot) {
+        if (++entries[slot] < threshold)
+            return null;
+        CompiledBlock block = compile(computer, slot);
+        blocks[slot] = block;
+        return block;
+    }
+
+    /**
+     * Drops the compiled blocks and entry counts of the previous program.
+     */
+    private void reset(Computer computer) {
+        computer.decodeAll();
+        program = computer.getWords();
+        programLength = computer.getInstructionCount();
+        entries = new int[programLength];
+        blocks = new CompiledBlock[programLength];
+    }
+
+    /**
+     * Compiles the block starting at a slot into a hidden class.
+     */
+    private CompiledBlock compile(Computer computer, int start) {
+        int ic = computer.getInstructionCount();
+        int[] op = computer.getOp();
+        int end = start;
+        while (end < ic && end - start < MAX_BLOCK && op[end] != Predecoder.JR
+                && op[end] < Predecoder.FIRST_EXTENSION) {
+            if (ENDS_BLOCK[op[end++]])
+                break;
+        }
+        if (end == start)
+            return INTERPRETED;
+
+        byte[] classFile = generate(computer, start, end);
+        CompiledBlock block;
+        try {
+            block = (CompiledBlock) MethodHandles.lookup()
+                    .defineHiddenClass(classFile, true)
+                    .lookupClass()
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to define block at slot " + start, e);
+        }
+        block.start = start;
+        block.length = end - start;
+        compiledBlocks++;
+        compiledInstructions += block.length;
+        return block;
+    }
+
+    // Locals of the generated execute method after this, gpr and memory
+    private static final int ADDRESS = 3;
+    private static final int REGISTERS = 4;
+    private static final int THROWN = REGISTERS + 32;
+
+    private static final String SUPER = "mipssim/swain91/git/CompiledBlock";
+    private static final String DATA_MEMORY = "mipssim/swain91/git/DataMemory";
+
+    /**
+     * Generates the class file of a block covering the slots from start,
+     * inclusive, to end, exclusive. The class file is version 49, so the
+     * verifier infers the types at branch targets and no stack map is needed.
+     */
+    private static byte[] generate(Computer computer, int start, int end) {
+        int ic = computer.getInstructionCount();
+        int[] op = computer.getOp();
+        int[] rs = computer.getRs();
+        int[] rt = computer.getRt();
+        int[] rd = computer.getRd();
+        int[] imm = computer.getImm();
+
+        boolean[] used = new boolean[32];
+        boolean[] written = new boolean[32];
+        boolean accessesMemory = false;
+        for (int slot = start; slot < end; slot++) {
+            switch (op[slot]) {
+                case Predecoder.ADD:
+                case Predecoder.ADDU:
+                case Predecoder.AND:
+                case Predecoder.OR:
+                    used[rs[slot]] = used[rt[slot]] = true;
+                    written[rd[slot]] = true;
+                    break;
+                case Predecoder.ADDI:
+                case Predecoder.ADDIU:
+                case Predecoder.ANDI:
+                case Predecoder.ORI:
+                    used[rs[slot]] = true;
+                    written[rt[slot]] = true;
+                    break;
+                case Predecoder.LW:
+                    // The target keeps its value when the address is out of bounds
+                    used[rs[slot]] = used[rt[slot]] = true;
+                    written[rt[slot]] = true;
+                    accessesMemory = true;
+                    break;
+                case Predecoder.SW:
+                    used[rs[slot]] = used[rt[slot]] = true;
+                    accessesMemory = true;
+                    break;
+                case Predecoder.BEQ:
+                case Predecoder.BNE:
+                    used[rs[slot]] = used[rt[slot]] = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // A register the block only writes is read too when the exception
+        // handler may write it back before the block has assigned it
+        ClassFile cf = new ClassFile();
+        Bytes code = new Bytes();
+        for (int r = 0; r < 32; r++) {
+            if (used[r] || (accessesMemory && written[r])) {
+                code.u1(ALOAD_1);
+                push(cf, code, r);
+                code.u1(IALOAD);
+                code.u1(ISTORE).u1(REGISTERS + r);
+            }
+        }
+
+        int bodyStart = code.length();
+        for (int slot = start; slot < end; slot++) {
+            switch (op[slot]) {
+                case Predecoder.ADD:
+                case Predecoder.ADDU:
+                    binary(code, rs[slot], rt[slot], rd[slot], IADD);
+                    break;
+                case Predecoder.AND:
+                    binary(code, rs[slot], rt[slot], rd[slot], IAND);
+                    break;
+                case Predecoder.OR:
+                    binary(code, rs[slot], rt[slot], rd[slot], IOR);
+                    break;
+                case Predecoder.ADDI:
+                case Predecoder.ADDIU:
+                    immediate(cf, code, rs[slot], rt[slot], imm[slot], IADD);
+                    break;
+                case Predecoder.ANDI:
+                    immediate(cf, code, rs[slot], rt[slot], imm[slot], IAND);
+                    break;
+                case Predecoder.ORI:
+                    immediate(cf, code, rs[slot], rt[slot], imm[slot], IOR);
+                    break;
+                case Predecoder.LW:
+                case Predecoder.SW:
+                    memory(cf, code, op[slot], rs[slot], rt[slot], imm[slot]);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        int bodyEnd = code.length();
+        writeBack(cf, code, written);
+
+        int last = end - 1;
+        int fallthrough = end;
+        int target = imm[last];
+        boolean valid = target >= 0 && target < ic;
+        switch (op[last]) {
+            case Predecoder.JUMP:
+                push(cf, code, valid ? target : fallthrough);
+                code.u1(IRETURN);
+                break;
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                if (valid) {
+                    code.u1(ILOAD).u1(REGISTERS + rs[last]);
+                    code.u1(ILOAD).u1(REGISTERS + rt[last]);
+                    int branch = code.length();
+                    code.u1(op[last] == Predecoder.BEQ ? IF_ICMPNE : IF_ICMPEQ).u2(0);
+                    push(cf, code, target);
+                    code.u1(IRETURN);
+                    code.patch2(branch + 1, code.length() - branch);
+                }
+                push(cf, code, fallthrough);
+                code.u1(IRETURN);
+                break;
+            default:
+                push(cf, code, fallthrough);
+                code.u1(IRETURN);
+                break;
+        }
+
+        int[] handler = null;
+        if (accessesMemory) {
+            handler = new int[] { bodyStart, bodyEnd, code.length() };
+            code.u1(ASTORE).u1(THROWN);
+            writeBack(cf, code, written);
+            code.u1(ALOAD).u1(THROWN);
+            code.u1(ATHROW);
+        }
+
+        return cf.build("mipssim/swain91/git/Block" + start, SUPER, "([I" + "L" + DATA_MEMORY + ";)I", code, handler);
+    }
+
+    private static void writeBack(ClassFile cf, Bytes code, boolean[] written) {
+        for (int r = 0; r < 32; r++) {
+            if (written[r]) {
+                code.u1(ALOAD_1);
+                push(cf, code, r);
+                code.u1(ILOAD).u1(REGISTERS + r);
+                code.u1(IASTORE);
+            }
+        }
+    }
+
+    private static void binary(Bytes code, int source, int target, int destination, int opcode) {
+        code.u1(ILOAD).u1(REGISTERS + source);
+        code.u1(ILOAD).u1(REGISTERS + target);
+        code.u1(opcode);
+        code.u1(ISTORE).u1(REGISTERS + destination);
+    }
+
+    private static void immediate(ClassFile cf, Bytes code, int source, int target, int immediate, int opcode) {
+        code.u1(ILOAD).u1(REGISTERS + source);
+        push(cf, code, immediate);
+        code.u1(opcode);
+        code.u1(ISTORE).u1(REGISTERS + target);
+    }
+
+    /**
+     * Emits a load or store that, like the interpreter, does nothing when the
+     * address is outside the data memory.
+     */
+    private static void memory(ClassFile cf, Bytes code, int operation, int source, int target, int immediate) {
+        code.u1(ILOAD).u1(REGISTERS + source);
+        push(cf, code, immediate);
+        code.u1(IADD);
+        code.u1(ISTORE).u1(ADDRESS);
+
+        code.u1(ALOAD_2);
+        code.u1(ILOAD).u1(ADDRESS);
+        push(cf, code, 4);
+        code.u1(INVOKEINTERFACE).u2(cf.interfaceMethod(DATA_MEMORY, "contains", "(II)Z")).u1(3).u1(0);
+        int skip = code.length();
+        code.u1(IFEQ).u2(0);
+
+        code.u1(ALOAD_2);
+        code.u1(ILOAD).u1(ADDRESS);
+        if (operation == Predecoder.LW) {
+            code.u1(INVOKEINTERFACE).u2(cf.interfaceMethod(DATA_MEMORY, "loadWord", "(I)I")).u1(2).u1(0);
+            code.u1(ISTORE).u1(REGISTERS + target);
+        } else {
+            code.u1(ILOAD).u1(REGISTERS + target);
+            code.u1(INVOKEINTERFACE).u2(cf.interfaceMethod(DATA_MEMORY, "storeWord", "(II)V")).u1(3).u1(0);
+        }
+        code.patch2(skip + 1, code.length() - skip);
+    }
+
+    private static void push(ClassFile cf, Bytes code, int value) {
+        if (value >= -1 && value <= 5)
+            code.u1(ICONST_0 + value);
+        else if (value == (byte) value)
+            code.u1(BIPUSH).u1(value);
+        else if (value == (short) value)
+            code.u1(SIPUSH).u2(value);
+        else
+            code.u1(LDC_W).u2(cf.integer(value));
+    }
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ILOAD = 0x15;
+    private static final int ALOAD = 0x19;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int IALOAD = 0x2e;
+    private static final int ISTORE = 0x36;
+    private static final int ASTORE = 0x3a;
+    private static final int IASTORE = 0x4f;
+    private static final int IADD = 0x60;
+    private static final int IAND = 0x7e;
+    private static final int IOR = 0x80;
+    private static final int IFEQ = 0x99;
+    private static final int IF_ICMPEQ = 0x9f;
+    private static final int IF_ICMPNE = 0xa0;
+    private static final int IRETURN = 0xac;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int ATHROW = 0xbf;
+
+    /**
+     * A growable big-endian byte buffer.
+     */
+    private static final class Bytes {
+
+        private byte[] data = new byte[256];
+        private int length = 0;
+
+        Bytes u1(int value) {
+            if (length == data.length)
+                data = Arrays.copyOf(data, length * 2);
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        Bytes u2(int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        Bytes u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        Bytes bytes(Bytes other) {
+            for (int i = 0; i < other.length; i++) {
+                u1(other.data[i]);
+            }
+            return this;
+        }
+
+        void patch2(int at, int value) {
+            data[at] = (byte) (value >>> 8);
+            data[at + 1] = (byte) value;
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, length);
+        }
+    }
+
+    /**
+     * The constant pool and layout of a class with a no-argument constructor
+     * and one <code>execute</code> method. Names are ASCII, so their modified
+     * UTF-8 form is the characters themselves.
+     */
+    private static final class ClassFile {
+
+        private final Bytes pool = new Bytes();
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        private int entry(String key, Bytes content) {
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            pool.bytes(content);
+            entries.put(key, count);
+            return count++;
+        }
+
+        int utf8(String text) {
+            Bytes content = new Bytes().u1(1).u2(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                content.u1(text.charAt(i));
+            }
+            return entry("U" + text, content);
+        }
+
+        int integer(int value) {
+            return entry("I" + value, new Bytes().u1(3).u4(value));
+        }
+
+        int type(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, new Bytes().u1(7).u2(nameIndex));
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            return entry("N" + name + " " + descriptor, new Bytes().u1(12).u2(nameIndex).u2(descriptorIndex));
+        }
+
+        int method(String owner, String name, String descriptor) {
+            int ownerIndex = type(owner);
+            int natIndex = nameAndType(name, descriptor);
+            return entry("M" + owner + "." + name + descriptor, new Bytes().u1(10).u2(ownerIndex).u2(natIndex));
+        }
+
+        int interfaceMethod(String owner, String name, String descriptor) {
+            int ownerIndex = type(owner);
+            int natIndex = nameAndType(name, descriptor);
+            return entry("F" + owner + "." + name + descriptor, new Bytes().u1(11).u2(ownerIndex).u2(natIndex));
+        }
+
+        /**
+         * @param handler	the start, end and handler offsets of a catch-all
+         * 					exception handler in the body, or <code>null</code>
+         */
+        byte[] build(String name, String superName, String descriptor, Bytes body, int[] handler) {
+            int thisIndex = type(name);
+            int superIndex = type(superName);
+            int codeIndex = utf8("Code");
+            int initIndex = utf8("<init>");
+            int voidIndex = utf8("()V");
+            int superInit = method(superName, "<init>", "()V");
+            int executeIndex = utf8("execute");
+            int descriptorIndex = utf8(descriptor);
+
+            Bytes out = new Bytes();
+            out.u4(0xcafebabe).u2(0).u2(49);
+            out.u2(count).bytes(pool);
+            out.u2(0x0030); // ACC_FINAL | ACC_SUPER
+            out.u2(thisIndex).u2(superIndex);
+            out.u2(0); // interfaces
+            out.u2(0); // fields
+            out.u2(2); // methods
+
+            Bytes init = new Bytes().u1(ALOAD_0).u1(INVOKESPECIAL).u2(superInit).u1(RETURN);
+            writeMethod(out, initIndex, voidIndex, codeIndex, 1, 1, init, null);
+            writeMethod(out, executeIndex, descriptorIndex, codeIndex, 4, THROWN + 1, body, handler);
+
+            out.u2(0); // attributes
+            return out.toByteArray();
+        }
+
+        private static void writeMethod(Bytes out, int nameIndex, int descriptorIndex, int codeIndex,
+                int maxStack, int maxLocals, Bytes code, int[] handler) {
+            int handlers = handler != null ? 1 : 0;
+            out.u2(0).u2(nameIndex).u2(descriptorIndex);
+            out.u2(1); // attributes
+            out.u2(codeIndex).u4(12 + code.length() + 8 * handlers);
+            out.u2(maxStack).u2(maxLocals);
+            out.u4(code.length()).bytes(code);
+            out.u2(handlers); // exception table
+            if (handler != null)
+                out.u2(handler[0]).u2(handler[1]).u2(handler[2]).u2(0); // any exception
+            out.u2(0); // attributes
+        }
+    }
+}
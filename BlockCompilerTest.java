@@ -0,0 +1,217 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BlockCompiler} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class BlockCompilerTest {
+
+	private static final String[] MEMORY = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"10101100001000010000000000000000", // sw   $1, 0($1)
+			"01011100001000111111111111111111", // lw   $3, -1($1)
+			"00000000100000110010000000010100", // add  $4, $4, $3
+			"01011100000001100000000001000110", // lw   $6, 70($0)
+			"00010100001000100000000000000000"  // bne  $1, $2, 0
+	};
+
+	private static final String[] INDIRECT = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"00010000001000100000000000000100", // beq  $1, $2, 4
+			"00100000000001010000000000000000", // addi $5, $0, 0
+			"00000000101000000000000000001000", // jr   $5
+			"00100001010010100000000000000001"  // addi $10, $10, 1
+	};
+
+	private static final String[] INVALID_TARGETS = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"00001000000000000000000000110010", // jump 50
+			"00010000000000000000000000111100", // beq  $0, $0, 60
+			"00010100001000100000000000000000"  // bne  $1, $2, 0
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting BlockCompiler.java tests...");
+	}
+
+	@Test
+	void shouldMatchInterpreterOnAluLoop() {
+		assertSameRun(TestPrograms.aluProgram(), 5000);
+	}
+
+	@Test
+	void shouldMatchInterpreterOnBranchLoop() {
+		assertSameRun(TestPrograms.branchProgram(), 5000);
+	}
+
+	@Test
+	void shouldMatchInterpreterOutOfBounds() {
+		assertSameRun(MEMORY, 100);
+	}
+
+	@Test
+	void shouldFallBackOnJr() {
+		BlockCompiler test = assertSameRun(INDIRECT, 1000);
+
+		assertEquals(3, test.getCompiledBlocks());
+		assertEquals(4, test.getCompiledInstructions());
+	}
+
+	@Test
+	void shouldIgnoreInvalidTargets() {
+		assertSameRun(INVALID_TARGETS, 1000);
+	}
+
+	@Test
+	void shouldStopAtBudget() {
+		Computer expected = load(TestPrograms.aluProgram(), 5000);
+		Computer actual = load(TestPrograms.aluProgram(), 5000);
+		actual.setCompiler(new BlockCompiler(1));
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(expected.run(1237), actual.run(1237));
+			assertSameState(expected, actual);
+		}
+	}
+
+	@Test
+	void shouldNotCompileColdBlocks() {
+		Computer computer = load(TestPrograms.aluProgram(), 50);
+		BlockCompiler test = new BlockCompiler(100);
+		computer.setCompiler(test);
+		computer.run();
+
+		assertEquals(0, test.getCompiledBlocks());
+		assertEquals(50, computer.getRegister(1));
+	}
+
+	@Test
+	void shouldRecompileAfterLoad() {
+		Computer expected = load(INDIRECT, 10);
+		Computer actual = load(INDIRECT, 10);
+		BlockCompiler test = new BlockCompiler(1);
+		actual.setCompiler(test);
+		expected.run();
+		actual.run();
+
+		int word = InstructionString.parseWord("00100001011010110000000000000101"); // addi $11, $11, 5
+		for (Computer computer : new Computer[] { expected, actual }) {
+			computer.insertWord(word);
+			computer.setRegister(1, 0);
+			computer.setPc(0);
+			computer.run();
+		}
+
+		assertSameState(expected, actual);
+		assertEquals(5, actual.getRegister(11));
+		assertEquals(6, test.getCompiledBlocks());
+	}
+
+	@Test
+	void shouldWriteBackRegistersWhenMemoryThrows() {
+		String[] program = {
+				"00100000000000010000000000000101", // addi $1, $0, 5
+				"00100000000000110000000000000111", // addi $3, $0, 7
+				"10101100000000010000000001100100", // sw   $1, 100($0)
+				"00100000000001000000000000001001"  // addi $4, $0, 9
+		};
+		Computer expected = new Computer(unchecked(16));
+		Computer actual = new Computer(unchecked(16));
+		for (String line : program) {
+			expected.insertWord(InstructionString.parseWord(line));
+			actual.insertWord(InstructionString.parseWord(line));
+		}
+		BlockCompiler test = new BlockCompiler(1);
+		actual.setCompiler(test);
+		
+		assertThrows(ArrayIndexOutOfBoundsException.class, expected::run);
+		assertThrows(ArrayIndexOutOfBoundsException.class, actual::run);
+		assertEquals(1, test.getCompiledBlocks());
+		for (int i = 0; i < 32; i++) {
+			assertEquals(expected.getRegister(i), actual.getRegister(i), "$" + i);
+		}
+		assertEquals(5, actual.getRegister(1));
+		assertEquals(7, actual.getRegister(3));
+		assertEquals(0, actual.getRegister(4));
+	}
+	
+	@Test
+	void shouldRejectInvalidThreshold() {
+		assertThrows(IllegalArgumentException.class, () -> new BlockCompiler(0));
+	}
+
+	/**
+	 * Runs a program in the interpreter and with every block compiled, and
+	 * checks both end in the same state.
+	 */
+	private static BlockCompiler assertSameRun(String[] program, int iterations) {
+		Computer expected = load(program, iterations);
+		Computer actual = load(program, iterations);
+		BlockCompiler compiler = new BlockCompiler(1);
+		actual.setCompiler(compiler);
+		expected.run();
+		actual.run();
+
+		assertSameState(expected, actual);
+		return compiler;
+	}
+
+	private static void assertSameState(Computer expected, Computer actual) {
+		assertEquals(expected.getPc(), actual.getPc());
+		assertEquals(expected.getRetired(), actual.getRetired());
+		for (int i = 0; i < 32; i++) {
+			assertEquals(expected.getRegister(i), actual.getRegister(i), "$" + i);
+		}
+		for (int i = 0; i < expected.getMemory().size(); i++) {
+			assertEquals(expected.getMemory().load(i), actual.getMemory().load(i), "mem[" + i + "]");
+		}
+	}
+
+	/**
+	 * A memory that claims every address, so an access outside its words
+	 * throws instead of being skipped.
+	 */
+	private static DataMemory unchecked(int size) {
+		int[] words = new int[size];
+		return new DataMemory() {
+			@Override
+			public int size() {
+				return size;
+			}
+			
+			@Override
+			public boolean contains(int address, int width) {
+				return true;
+			}
+			
+			@Override
+			public int load(int address) {
+				return words[address];
+			}
+			
+			@Override
+			public void store(int address, int value) {
+				words[address] = value;
+			}
+		};
+	}
+
+	private static Computer load(String[] program, int iterations) {
+		Computer computer = new Computer();
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		computer.setRegister(2, iterations);
+		computer.setRegister(6, 99);
+		return computer;
+	}
+}
@@ -0,0 +1,166 @@
+package mipssim.swain91.git;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Byte addressable data memory held in a single <code>byte[]</code>, for
+ * programs that use <code>lb</code>, <code>lbu</code>, <code>lh</code>,
+ * <code>lhu</code>, <code>sb</code> and <code>sh</code>. The effective address
+ * of every load and store instruction is a byte address, and words and
+ * halfwords are stored in the byte order the memory was created with.
+ *
+ * <p>
+ * Words and halfwords are read and written through {@link VarHandle} views of
+ * the array, so an aligned word access is a single load or store. A misaligned
+ * access is still allowed and takes a separate path that assembles the value
+ * byte by byte, which keeps the aligned path small enough to inline.
+ *
+ * <p>
+ * The word addresses of {@link #load(int)}, {@link #store(int, int)} and
+ * {@link #size()}, which a {@link ProgramImage} and the results of a run use,
+ * count aligned words, so word <i>i</i> is the word at byte address 4<i>i</i>.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class ByteMemory implements DataMemory {
+
+    private static final VarHandle BIG_WORD = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LITTLE_WORD = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BIG_HALF = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LITTLE_HALF = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] bytes;
+    private final boolean bigEndian;
+
+    /**
+     * Creates a big-endian memory, the byte order of MIPS.
+     *
+     * @param size	the number of words
+     */
+    public ByteMemory(int size) {
+        this(size, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * @param size	the number of words
+     * @param order	the order of the bytes of words and halfwords
+     */
+    public ByteMemory(int size, ByteOrder order) {
+        if (size < 0 || size > Integer.MAX_VALUE / 4)
+            throw new IllegalArgumentException("Invalid memory size " + size);
+        this.bytes = new byte[size * 4];
+        this.bigEndian = order == ByteOrder.BIG_ENDIAN;
+    }
+
+    private ByteMemory(byte[] bytes, boolean bigEndian) {
+        this.bytes = bytes;
+        this.bigEndian = bigEndian;
+    }
+
+    public ByteOrder getOrder() {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    @Override
+    public int size() {
+        return bytes.length >>> 2;
+    }
+
+    @Override
+    public int load(int address) {
+        return loadWord(address << 2);
+    }
+
+    @Override
+    public void store(int address, int value) {
+        storeWord(address << 2, value);
+    }
+
+    @Override
+    public boolean isByteAddressed() {
+        return true;
+    }
+
+    @Override
+    public boolean contains(int address, int width) {
+        return address >= 0 && address <= bytes.length - width;
+    }
+
+    @Override
+    public int loadWord(int address) {
+        if ((address & 3) != 0)
+            return loadMisaligned(address, 4);
+        return bigEndian ? (int) BIG_WORD.get(bytes, address) : (int) LITTLE_WORD.get(bytes, address);
+    }
+
+    @Override
+    public void storeWord(int address, int value) {
+        if ((address & 3) != 0)
+            storeMisaligned(address, 4, value);
+        else if (bigEndian)
+            BIG_WORD.set(bytes, address, value);
+        else
+            LITTLE_WORD.set(bytes, address, value);
+    }
+
+    @Override
+    public int loadHalf(int address) {
+        if ((address & 1) != 0)
+            return loadMisaligned(address, 2);
+        return (bigEndian ? (short) BIG_HALF.get(bytes, address) : (short) LITTLE_HALF.get(bytes, address)) & 0xffff;
+    }
+
+    @Override
+    public void storeHalf(int address, int value) {
+        if ((address & 1) != 0)
+            storeMisaligned(address, 2, value);
+        else if (bigEndian)
+            BIG_HALF.set(bytes, address, (short) value);
+        else
+            LITTLE_HALF.set(bytes, address, (short) value);
+    }
+
+    @Override
+    public int loadByte(int address) {
+        return bytes[address] & 0xff;
+    }
+
+    @Override
+    public void storeByte(int address, int value) {
+        bytes[address] = (byte) value;
+    }
+
+    /**
+     * Reads a word or halfword that is not aligned to its size, one byte at a time.
+     */
+    private int loadMisaligned(int address, int width) {
+        int value = 0;
+        for (int i = 0; i < width; i++) {
+            int b = bytes[address + (bigEndian ? i : width - 1 - i)] & 0xff;
+            value = value << 8 | b;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a word or halfword that is not aligned to its size, one byte at a time.
+     */
+    private void storeMisaligned(int address, int width, int value) {
+        for (int i = 0; i < width; i++) {
+            bytes[address + (bigEndian ? width - 1 - i : i)] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bytes, (byte) 0);
+    }
+
+    @Override
+    public ByteMemory fork() {
+        return new ByteMemory(bytes.clone(), bigEndian);
+    }
+}
@@ -0,0 +1,91 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ByteMemory} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class ByteMemoryTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting ByteMemory.java tests...");
+	}
+
+	@Test
+	void shouldStoreBigEndian() {
+		ByteMemory test = new ByteMemory(4);
+		test.storeWord(4, 0x11223344);
+
+		assertEquals(ByteOrder.BIG_ENDIAN, test.getOrder());
+		assertEquals(0x11, test.loadByte(4));
+		assertEquals(0x44, test.loadByte(7));
+		assertEquals(0x1122, test.loadHalf(4));
+		assertEquals(0x11223344, test.load(1));
+	}
+
+	@Test
+	void shouldStoreLittleEndian() {
+		ByteMemory test = new ByteMemory(4, ByteOrder.LITTLE_ENDIAN);
+		test.storeWord(4, 0x11223344);
+
+		assertEquals(0x44, test.loadByte(4));
+		assertEquals(0x11, test.loadByte(7));
+		assertEquals(0x3344, test.loadHalf(4));
+		assertEquals(0x11223344, test.load(1));
+	}
+
+	@Test
+	void shouldAccessMisaligned() {
+		for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+			ByteMemory test = new ByteMemory(4, order);
+			test.storeWord(3, 0xcafebabe);
+			test.storeHalf(9, 0xbeef);
+
+			assertEquals(0xcafebabe, test.loadWord(3), order.toString());
+			assertEquals(0xbeef, test.loadHalf(9), order.toString());
+			assertEquals(test.loadByte(order == ByteOrder.BIG_ENDIAN ? 3 : 6), 0xca, order.toString());
+		}
+	}
+
+	@Test
+	void shouldBoundAccessWidth() {
+		ByteMemory test = new ByteMemory(2);
+
+		assertTrue(test.isByteAddressed());
+		assertEquals(2, test.size());
+		assertTrue(test.contains(4, 4));
+		assertFalse(test.contains(5, 4));
+		assertTrue(test.contains(7, 1));
+		assertFalse(test.contains(8, 1));
+		assertFalse(test.contains(-1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ByteMemory(-1));
+	}
+
+	@Test
+	void shouldForkAndClear() {
+		ByteMemory memory = new ByteMemory(2, ByteOrder.LITTLE_ENDIAN);
+		memory.store(0, 5);
+
+		ByteMemory test = memory.fork();
+		memory.clear();
+		test.storeByte(4, 9);
+
+		assertEquals(0, memory.load(0));
+		assertEquals(0, memory.load(1));
+		assertEquals(5, test.load(0));
+		assertEquals(9, test.load(1));
+		assertEquals(ByteOrder.LITTLE_ENDIAN, test.getOrder());
+	}
+}
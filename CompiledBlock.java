@@ -0,0 +1,36 @@
+package mipssim.swain91.git;
+
+/**
+ * A basic block of a program compiled to JVM bytecode by {@link BlockCompiler}.
+ * Each compiled block is a hidden class extending this one, whose
+ * {@link #execute(int[], DataMemory)} runs every instruction of the block with
+ * the registers it uses held in locals.
+ *
+ * <p>
+ * Like {@link Operation}, this is an abstract class rather than an interface
+ * so the call from the run loop is a virtual call instead of an interface call.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+abstract class CompiledBlock {
+
+    /**
+     * The first instruction slot of the block.
+     */
+    int start;
+
+    /**
+     * The number of instructions the block retires, including its branch.
+     */
+    int length;
+
+    /**
+     * Runs the block and writes the registers it changed back.
+     *
+     * @param gpr		the registers of the computer
+     * @param memory	the data memory of the computer
+     * @return			the instruction pointer after the block
+     */
+    abstract int execute(int[] gpr, DataMemory memory);
+}
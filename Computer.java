@@ -1,4 +1,6 @@
 package mipssim.swain91.git;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Computer is the base class for the MIPS simulation and is responsible
@@ -15,6 +17,12 @@ package mipssim.swain91.git;
  * <p>
  * The fetch method preludes any operation. The decode and execute follows.
  * 
+ * <p>
+ * Every Computer is an independent machine with no shared mutable state, so
+ * any number of them can be created and run at once, for example through a
+ * {@link SimulationPool}. The public methods are the engine API for loading a
+ * program, running it and reading back registers and memory.
+ * 
  * @author Samuel Servane
  * @version 1.3
  */
@@ -22,52 +30,354 @@ public final class Computer {
 
     private final static int MAX_MEMORY = 64;
     private final static int MAX_REGISTERS = 32;
+
+    /**
+     * The most instructions a bounded run executes between checks of its budget
+     * and deadline, about a tenth of a millisecond.
+     */
+    private final static int SLICE = 1 << 16;
     private int pc = 0;
     private int ic = 0;
+    private int irSlot = -1;
+    private long retired = 0;
+    private boolean programShared = false;
 
     private Instruction instructions[];
-    private Instruction ir;
+    private int[] words;
+    private int[] op;
+    private int[] rs;
+    private int[] rt;
+    private int[] rd;
+    private int[] imm;
     private int[] gpr;
-    private int[] mem;
+    private int hi = 0;
+    private int lo = 0;
+    private DataMemory memory;
+    private TraceRecorder trace;
+    private ExecutionCounters counters;
+    private BlockCompiler compiler;
+    private InstructionFuser fuser;
+    private long fusedExtra = 0;
+    private boolean[] verified;
+    private Operation[] handlers;
+    private int[] dispatch;
+    private int[] verifiedWords;
+    private int verifiedLength = -1;
+    private boolean lazyDecoding = false;
+    private int undecoded = 0;
+
+    /**
+     * Dispatch codes of the verified jump, beq and bne, which run without the
+     * check of their target. They sit just below the {@link Predecoder}
+     * operation IDs so that the switch on a dispatch code stays dense.
+     */
+    private static final int JUMP_VERIFIED = -1;
+    private static final int BEQ_VERIFIED = -2;
+    private static final int BNE_VERIFIED = -3;
+
+    /**
+     * The handler table, one handler per {@link Predecoder} operation ID. The
+     * interpreter dispatches with a switch on the operation ID and only calls
+     * through the table for extension operations, whose handler is their
+     * {@link ExtensionInstruction}. An {@link InstructionFuser} builds its
+     * per-slot handlers from this table.
+     */
+    private static final Operation[] OPERATIONS = new Operation[Predecoder.OPERATION_COUNT];
+
+    static {
+        OPERATIONS[Predecoder.NONE] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {}
+        };
+        OPERATIONS[Predecoder.JR] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.jr(computer.rs[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.ADD] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.add(computer.rs[slot], computer.rt[slot], computer.rd[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.ADDU] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.addu(computer.rs[slot], computer.rt[slot], computer.rd[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.AND] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.and(computer.rs[slot], computer.rt[slot], computer.rd[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.OR] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.or(computer.rs[slot], computer.rt[slot], computer.rd[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.JUMP] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.jump(computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.BEQ] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.beq(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.BNE] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.bne(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.ADDI] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.addi(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.ADDIU] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.addiu(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.ANDI] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.andi(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.ORI] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.ori(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.LW] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.lw(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.SW] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.sw(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        OPERATIONS[Predecoder.UNDECODED] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.decodeSlot(slot).execute(computer, slot);
+            }
+        };
+        for (int operation = Predecoder.FIRST_EXTENSION; operation < Predecoder.OPERATION_COUNT; operation++) {
+            OPERATIONS[operation] = InstructionSet.extension(operation);
+        }
+    }
+
+    /**
+     * The dispatch table for instructions {@link ProgramVerifier} proved safe,
+     * whose branches and jumps skip the check of their target.
+     */
+    private static final Operation[] VERIFIED = OPERATIONS.clone();
+
+    static {
+        VERIFIED[Predecoder.JUMP] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.jumpVerified(computer.imm[slot]);
+            }
+        };
+        VERIFIED[Predecoder.BEQ] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.beqVerified(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+        VERIFIED[Predecoder.BNE] = new Operation() {
+            @Override
+            void execute(Computer computer, int slot) {
+                computer.bneVerified(computer.rs[slot], computer.rt[slot], computer.imm[slot]);
+            }
+        };
+    }
 
     public Computer() {
-        instructions = new Instruction[MAX_MEMORY];
-        mem = new int[MAX_MEMORY];
+        this(new ArrayMemory(MAX_MEMORY));
+    }
+
+    /**
+     * Creates a computer in the state saved by a snapshot. Any number of
+     * computers can be created from one snapshot; they share its program and
+     * memory pages until they write to them.
+     * 
+     * @param snapshot	the saved machine state
+     */
+    public Computer(Snapshot snapshot) {
+        restore(snapshot);
+    }
+
+    /**
+     * Creates a computer with the given data memory backend.
+     * 
+     * @param memory	the data memory, such as an {@link ArrayMemory} or {@link PagedMemory}
+     */
+    public Computer(DataMemory memory) {
+        allocateProgram(MAX_MEMORY);
+        verified = new boolean[MAX_MEMORY];
+        handlers = new Operation[MAX_MEMORY];
+        dispatch = new int[MAX_MEMORY];
+        this.memory = memory;
         gpr = new int[MAX_REGISTERS];
     };
 
+    private void allocateProgram(int capacity) {
+        instructions = new Instruction[capacity];
+        words = new int[capacity];
+        op = new int[capacity];
+        rs = new int[capacity];
+        rt = new int[capacity];
+        rd = new int[capacity];
+        imm = new int[capacity];
+        programShared = false;
+    }
+
     /**
      * Fetches the next instruction from the instructions list with
      * the current instruction pointer, then increments the pointer (PC+1).
      */
     void fetch() {
-        ir = instructions[pc];
+        irSlot = pc;
         pc++;
     }
 
-    int getInstructionCount() {
+    public int getInstructionCount() {
         return ic;
     }
 
-    int getPc() {
+    public int getPc() {
         return this.pc;
     }
+
+    /**
+     * @return	the number of instructions executed since the computer was created
+     */
+    public long getRetired() {
+        return this.retired;
+    }
     
     Instruction getIr() {
-    	return this.ir;
+    	return irSlot >= 0 && irSlot < ic ? getInstruction(irSlot) : null;
     }
     
     int[] getGpr() {
     	return this.gpr;
     }
     
+    /**
+     * @return	the words of the data memory, which must be an {@link ArrayMemory}
+     */
     int[] getMem() {
-    	return this.mem;
+    	if (!(memory instanceof ArrayMemory))
+    		throw new IllegalStateException("Data memory is not array backed");
+    	return ((ArrayMemory) memory).getWords();
+    }
+    
+    public DataMemory getMemory() {
+    	return this.memory;
+    }
+
+    /**
+     * @param register	a register number from 0 to 31
+     * @return			the value of the register
+     */
+    public int getRegister(int register) {
+    	return gpr[register];
+    }
+
+    /**
+     * @param register	a register number from 0 to 31
+     * @param value		the new value of the register
+     */
+    public void setRegister(int register, int value) {
+    	gpr[register] = value;
+    }
+
+    /**
+     * @return	the HI register, which multiply and divide instructions write
+     */
+    public int getHi() {
+    	return this.hi;
+    }
+
+    public void setHi(int value) {
+    	this.hi = value;
+    }
+
+    /**
+     * @return	the LO register, which multiply and divide instructions write
+     */
+    public int getLo() {
+    	return this.lo;
+    }
+
+    public void setLo(int value) {
+    	this.lo = value;
     }
     
     Instruction[] getInstructions() {
+    	for (int i = 0; i < ic; i++) {
+    		getInstruction(i);
+    	}
     	return this.instructions;
     }
+    
+    int[] getWords() {
+    	return this.words;
+    }
+    
+    int[] getOp() {
+    	return this.op;
+    }
+    
+    int[] getRs() {
+    	return this.rs;
+    }
+    
+    int[] getRt() {
+    	return this.rt;
+    }
+    
+    int[] getRd() {
+    	return this.rd;
+    }
+    
+    int[] getImm() {
+    	return this.imm;
+    }
+
+    /**
+     * Returns the instruction object for a slot, creating it from the stored
+     * word the first time it is asked for. The execution loop never needs the
+     * objects, so they only exist for display and debugging.
+     * 
+     * @param slot	the instruction slot
+     * @return		the instruction in the slot
+     */
+    Instruction getInstruction(int slot) {
+    	if (instructions[slot] == null)
+    		instructions[slot] = InstructionFactory.getInstance().createInstruction(words[slot]);
+    	return instructions[slot];
+    }
 
     /**
      * Inserts a new instruction at the given instruction counter
@@ -76,19 +386,244 @@ public final class Computer {
      * @param newInstruction	the new instruction being inserted into the list
      */
     void insertInstruction(Instruction newInstruction) {
-        instructions[ic] = newInstruction;
+        insertWord(newInstruction.getInstructionString().getWord());
+        instructions[ic - 1] = newInstruction;
+    }
+
+    /**
+     * Inserts a packed instruction word at the given instruction counter
+     * position, then increments the counter. No instruction object is created.
+     * 
+     * <p>
+     * The word is predecoded into the program arrays once here, so
+     * executing it later does not decode it again. The arrays grow when
+     * they are full.
+     * 
+     * @param word	the instruction as a packed <code>int</code>
+     */
+    public void insertWord(int word) {
+        if (ic == words.length)
+            ensureCapacity(ic * 2);
+        else if (programShared)
+            ensureCapacity(words.length);
+        if (lazyDecoding) {
+            words[ic] = word;
+            op[ic] = Predecoder.UNDECODED;
+            undecoded++;
+        } else {
+            predecode(ic, word);
+        }
         ic++;
     }
+
+    /**
+     * Appends a program of packed instruction words.
+     * 
+     * @param program	the instruction words in program order
+     * @param count		the number of words to load from the start of the array
+     */
+    public void load(int[] program, int count) {
+        ensureCapacity(ic + count);
+        if (lazyDecoding) {
+            // The slots past the program are still undecoded, so only the
+            // words are copied.
+            System.arraycopy(program, 0, words, ic, count);
+            undecoded += count;
+        } else {
+            for (int i = 0; i < count; i++) {
+                predecode(ic + i, program[i]);
+            }
+        }
+        ic += count;
+    }
+
+    /**
+     * @return	<code>true</code> if programs loaded from now on are decoded one
+     * 			slot at a time as they first execute
+     */
+    public boolean isLazyDecoding() {
+        return this.lazyDecoding;
+    }
+
+    /**
+     * Turns lazy decoding on or off for instructions loaded from now on. With
+     * lazy decoding a load only copies the instruction words, and each slot is
+     * decoded and verified the first time it executes, with the result kept in
+     * place. Code that never runs is never decoded, which suits large programs
+     * of which a run reaches little.
+     * 
+     * <p>
+     * A slot past the program reads as {@link Predecoder#UNDECODED} in every
+     * program array, and while any slot is undecoded a run does not verify the
+     * whole program, so the work before the first instruction does not grow
+     * with the cold part of the program. A block compiler, an instruction
+     * fuser, a lane sweep and a snapshot need the whole program, so they
+     * decode every slot left when they first see it, and with one of them
+     * attached nothing is deferred.
+     * 
+     * @param lazy	whether to decode lazily
+     */
+    public void setLazyDecoding(boolean lazy) {
+        this.lazyDecoding = lazy;
+    }
+
+    /**
+     * Decodes a slot that was loaded lazily, and updates the handler of the
+     * slot if the program was already verified.
+     * 
+     * @param slot	an instruction slot
+     * @return		the handler of the decoded slot
+     */
+    Operation decodeSlot(int slot) {
+        if (op[slot] == Predecoder.UNDECODED) {
+            predecode(slot, words[slot]);
+            undecoded--;
+        }
+        if (words != verifiedWords || ic != verifiedLength)
+            return OPERATIONS[op[slot]];
+        verified[slot] = ProgramVerifier.verify(this, slot);
+        handlers[slot] = verified[slot] ? VERIFIED[op[slot]] : OPERATIONS[op[slot]];
+        dispatch[slot] = dispatchCode(slot);
+        return handlers[slot];
+    }
+
+    /**
+     * Decodes every slot that was loaded lazily and has not run yet, for the
+     * passes that read the whole program. The whole program is verified again
+     * on the next run.
+     */
+    void decodeAll() {
+        if (undecoded == 0)
+            return;
+        for (int slot = 0; slot < ic; slot++) {
+            if (op[slot] == Predecoder.UNDECODED)
+                predecode(slot, words[slot]);
+        }
+        undecoded = 0;
+        verifiedWords = null;
+    }
+
+    private void predecode(int slot, int word) {
+        int operation = Predecoder.operation(word);
+        words[slot] = word;
+        op[slot] = operation;
+        rs[slot] = Predecoder.source(word);
+        rt[slot] = Predecoder.target(word);
+        rd[slot] = Predecoder.destination(word);
+        imm[slot] = Predecoder.immediate(operation, word);
+    }
+
+    /**
+     * Grows the program arrays to at least the given capacity. Arrays that are
+     * shared with a snapshot or fork are copied even when they are large enough,
+     * so that new instructions are not seen by the others.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= words.length && !programShared)
+            return;
+        capacity = Math.max(capacity, words.length);
+        programShared = false;
+        instructions = Arrays.copyOf(instructions, capacity);
+        words = Arrays.copyOf(words, capacity);
+        op = Arrays.copyOf(op, capacity);
+        rs = Arrays.copyOf(rs, capacity);
+        rt = Arrays.copyOf(rt, capacity);
+        rd = Arrays.copyOf(rd, capacity);
+        imm = Arrays.copyOf(imm, capacity);
+    }
     
     /**
      * Updates the instruction pointer to a new value.
      * 
      * @param newPc		the new instruction pointer as <code>int</code>
      */
-    void setPc(int newPc) {
+    public void setPc(int newPc) {
     	this.pc = newPc;
     }
 
+    /**
+     * Saves the state of this computer: the instruction pointer, registers,
+     * program and data memory. The program arrays are shared rather than
+     * copied, and the memory is forked with {@link DataMemory#fork()}, which
+     * for a {@link PagedMemory} shares every page until it is written. Taking
+     * a snapshot therefore costs about as much as copying the registers. A
+     * lazily loaded program is decoded in full first, so the shared arrays are
+     * never written again.
+     * 
+     * @return	the saved state, which does not change as this computer runs on
+     */
+    public Snapshot snapshot() {
+        decodeAll();
+        programShared = true;
+        return new Snapshot(pc, retired, gpr.clone(), hi, lo, ic, instructions, words, op, rs, rt, rd, imm,
+                memory.fork());
+    }
+
+    /**
+     * Returns this computer to the state saved by a snapshot.
+     * 
+     * @param snapshot	the saved machine state
+     */
+    public void restore(Snapshot snapshot) {
+        clearHandlers();
+        pc = snapshot.pc;
+        irSlot = -1;
+        retired = snapshot.retired;
+        gpr = snapshot.gpr.clone();
+        hi = snapshot.hi;
+        lo = snapshot.lo;
+        ic = snapshot.ic;
+        instructions = snapshot.instructions;
+        words = snapshot.words;
+        op = snapshot.op;
+        rs = snapshot.rs;
+        rt = snapshot.rt;
+        rd = snapshot.rd;
+        imm = snapshot.imm;
+        programShared = true;
+        undecoded = 0;
+        memory = snapshot.memory.fork();
+    }
+
+    /**
+     * Creates a new computer that continues from the current state of this one.
+     * The two share their program and memory pages until either writes to them.
+     * The memory is copied with {@link DataMemory#fork()}: a
+     * {@link PagedMemory} shares its pages, while an {@link ArrayMemory},
+     * {@link ByteMemory} or {@link OffHeapMemory} is copied whole, and a
+     * memory that cannot be copied throws.
+     * 
+     * @return	the forked computer
+     * @throws UnsupportedOperationException	if the data memory cannot be forked
+     */
+    public Computer fork() {
+        return new Computer(snapshot());
+    }
+
+    /**
+     * Clears the program, registers, instruction pointer, retired count and
+     * data memory, so that this computer can run another program as if it
+     * were new. Attached tools such as a trace recorder stay attached.
+     * 
+     * <p>
+     * The program arrays are replaced rather than cleared, so a snapshot
+     * keeps its program, and a {@link BlockCompiler} or
+     * {@link InstructionFuser} sees a new program.
+     */
+    public void reset() {
+        clearHandlers();
+        pc = 0;
+        ic = 0;
+        irSlot = -1;
+        retired = 0;
+        undecoded = 0;
+        allocateProgram(MAX_MEMORY);
+        Arrays.fill(gpr, 0);
+        hi = 0;
+        lo = 0;
+        memory.clear();
+    }
+
     /**
      * Given an {@link InstructionString}, simulates the decode phase in
      * the MIPS architecture, where the object is parsed for its instruction
@@ -98,75 +633,525 @@ public final class Computer {
      * @return 		the decoded value as an <code>int</code>
      */
     int decode(InstructionString is) {
-        return (int) Long.parseLong(is.parseOpcode(), 2);
+        return is.parseOpcodeValue();
     }
 
     /**
      * The execute method simulates the execution phase in the MIPS
-     * architecture, where the decode phase preludes execution to determine
-     * the operation to be performed. The proper operation is 
-     * executed based on the value returned from the decode method.
-     * 
-     * <p>
-     * If the decode method returns 0, then an additional function integer is
-     * required as several {@link RegisterInstruction} objects share the same
-     * opcode.
+     * architecture for the fetched instruction. The instruction was already
+     * decoded by {@link Predecoder} when it was inserted, so the operation
+     * and its operands are read from the program arrays at the fetched slot
+     * and dispatched with a switch on the operation ID.
      */
     void execute() {
-        int opcode = decode(ir.getInstructionString());
-
-        if (opcode == 0) {
-            String functionString = ((RegisterInstruction) ir).getFunction();
-            int function = ir.getInstructionString().twosComplement(functionString);
-            switch (function) {
-                case 8:
-                    jr((RegisterInstruction) ir);
-                    break;
-                case 20:
-                    add((RegisterInstruction) ir);
-                    break;
-                case 21:
-                    addu((RegisterInstruction) ir);
-                    break;
-                case 24:
-                    and((RegisterInstruction) ir);
-                    break;
-                case 25:
-                    or((RegisterInstruction) ir);
-                    break;
+        if (irSlot >= 0 && irSlot < ic) {
+            if (counters != null) {
+                counters.count(words[irSlot]);
+                counters.addRun(1, 0);
             }
+            if (trace != null)
+                executeTraced(irSlot);
+            else
+                execute(irSlot);
+            retired++;
         }
-        switch(opcode) {
-            case 2:
-                jump((JumpInstruction) ir);
-                break;
-            case 4:
-                beq((ImmediateInstruction) ir);
-                break;
-            case 5:
-                bne((ImmediateInstruction) ir);
-                break;
-            case 8:
-                addi((ImmediateInstruction) ir);
-                break;
-            case 9:
-                addiu((ImmediateInstruction) ir);
-                break;
-            case 12:
-                andi((ImmediateInstruction) ir);
-                break;
-            case 13:
-                ori((ImmediateInstruction) ir);
+    }
+
+    /**
+     * Performs the operation of a predecoded instruction slot, with the
+     * runtime checks of its branch or jump.
+     * 
+     * @param slot	the instruction slot to execute
+     */
+    void execute(int slot) {
+        dispatch(op[slot], slot);
+    }
+
+    /**
+     * Performs an instruction slot given its dispatch code: a {@link Predecoder}
+     * operation ID, or the code of a verified branch or jump. HotSpot compiles
+     * the dense switch to a jump table with the cases inlined, which measured
+     * faster than a call through the {@link #OPERATIONS} table, where the call
+     * site sees every handler. The operands are read once up front and every
+     * case returns, which keeps the method under HotSpot's inlining limit for
+     * hot calls (325 bytes of bytecode). Extension operations and slots not
+     * decoded yet go through the table.
+     * 
+     * @param code	the dispatch code of the slot
+     * @param slot	the instruction slot to execute
+     */
+    private void dispatch(int code, int slot) {
+        int source = rs[slot];
+        int target = rt[slot];
+        int immediate = imm[slot];
+        switch (code) {
+            case BNE_VERIFIED:
+                bneVerified(source, target, immediate);
+                return;
+            case BEQ_VERIFIED:
+                beqVerified(source, target, immediate);
+                return;
+            case JUMP_VERIFIED:
+                jumpVerified(immediate);
+                return;
+            case Predecoder.NONE:
+                return;
+            case Predecoder.JR:
+                jr(source);
+                return;
+            case Predecoder.ADD:
+                add(source, target, rd[slot]);
+                return;
+            case Predecoder.ADDU:
+                addu(source, target, rd[slot]);
+                return;
+            case Predecoder.AND:
+                and(source, target, rd[slot]);
+                return;
+            case Predecoder.OR:
+                or(source, target, rd[slot]);
+                return;
+            case Predecoder.JUMP:
+                jump(immediate);
+                return;
+            case Predecoder.BEQ:
+                beq(source, target, immediate);
+                return;
+            case Predecoder.BNE:
+                bne(source, target, immediate);
+                return;
+            case Predecoder.ADDI:
+                addi(source, target, immediate);
+                return;
+            case Predecoder.ADDIU:
+                addiu(source, target, immediate);
+                return;
+            case Predecoder.ANDI:
+                andi(source, target, immediate);
+                return;
+            case Predecoder.ORI:
+                ori(source, target, immediate);
+                return;
+            case Predecoder.LW:
+                lw(source, target, immediate);
+                return;
+            case Predecoder.SW:
+                sw(source, target, immediate);
+                return;
+            default:
+                OPERATIONS[code].execute(this, slot);
+        }
+    }
+
+    /**
+     * Runs the loaded instructions from the current instruction pointer until
+     * the pointer moves past the last instruction.
+     */
+    public void run() {
+        runSlice(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs at most a given number of instructions. Calling a run method again
+     * resumes from where this one stopped.
+     * 
+     * @param budget	the most instructions to execute
+     * @return			{@link RunStatus#HALTED} or {@link RunStatus#BUDGET_EXHAUSTED}
+     */
+    public RunStatus run(long budget) {
+        return run(budget, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs until the program halts, a number of instructions have executed, or
+     * a timeout passes, whichever comes first. Instructions run in slices of
+     * up to 65536 with no checks inside a slice, so the budget and clock cost
+     * almost nothing per instruction, and the timeout is only noticed at the
+     * end of a slice. Calling a run method again resumes from where this one
+     * stopped.
+     * 
+     * @param budget	the most instructions to execute
+     * @param timeout	the longest time to run, or <code>Long.MAX_VALUE</code> for no limit
+     * @param unit		the unit of the timeout
+     * @return			why the run returned
+     */
+    public RunStatus run(long budget, long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        boolean timed = nanos < Long.MAX_VALUE / 2;
+        long deadline = timed ? System.nanoTime() + nanos : 0;
+        long remaining = budget;
+        while (pc < ic) {
+            if (remaining <= 0)
+                return RunStatus.BUDGET_EXHAUSTED;
+            if (timed && System.nanoTime() - deadline >= 0)
+                return RunStatus.TIMED_OUT;
+            remaining -= runSlice(Math.min(remaining, SLICE));
+        }
+        return RunStatus.HALTED;
+    }
+
+    /**
+     * The execution loop: runs instructions until the program halts or the
+     * limit is reached.
+     * 
+     * @param limit	the most instructions to execute
+     * @return		the number of instructions executed
+     */
+    private long runSlice(long limit) {
+        if (trace != null || counters != null)
+            return runInstrumented(limit);
+        if (compiler != null)
+            return runTiered(limit);
+        if (fuser != null)
+            return runFused(limit);
+        handlers();
+        int[] codes = dispatch;
+        long count = 0;
+        while (pc < ic && count < limit) {
+            irSlot = pc++;
+            dispatch(codes[irSlot], irSlot);
+            count++;
+        }
+        retired += count;
+        return count;
+    }
+
+    /**
+     * Returns the handler of each instruction slot, running
+     * {@link ProgramVerifier} first if the program changed since it last ran.
+     * Slots proven safe get the handler of the {@link #VERIFIED} table, the
+     * others the checked one, and the same choice is kept as a dispatch code
+     * per slot for the interpreter's switch. The tables are only allocated
+     * when the program outgrows them, so running does not allocate. While
+     * slots loaded lazily are undecoded, only the slots that already ran have
+     * a handler, see {@link #setLazyDecoding(boolean)}.
+     * 
+     * @return	the handler of each slot of the current program, which may be
+     * 			longer than the program
+     */
+    Operation[] handlers() {
+        if (words != verifiedWords || ic != verifiedLength) {
+            if (handlers == null) {
+                verified = new boolean[words.length];
+                handlers = new Operation[words.length];
+                dispatch = new int[words.length];
+            } else if (handlers.length < ic) {
+                verified = Arrays.copyOf(verified, words.length);
+                handlers = Arrays.copyOf(handlers, words.length);
+                dispatch = Arrays.copyOf(dispatch, words.length);
+            }
+            // While slots are undecoded the pass is skipped: the slots that
+            // already have a handler keep it, since the program only grew, and
+            // the others dispatch as undecoded and are verified one at a time
+            // by decodeSlot when they first run.
+            if (undecoded == 0) {
+                ProgramVerifier.verify(this, verified);
+                for (int slot = 0; slot < ic; slot++) {
+                    handlers[slot] = verified[slot] ? VERIFIED[op[slot]] : OPERATIONS[op[slot]];
+                    dispatch[slot] = dispatchCode(slot);
+                }
+            }
+            verifiedWords = words;
+            verifiedLength = ic;
+        }
+        return handlers;
+    }
+
+    /**
+     * Clears the handlers of the current program before it is replaced, so
+     * that slots of the next program that are loaded lazily dispatch as
+     * undecoded. Only the slots of the current program were ever set.
+     */
+    private void clearHandlers() {
+        if (handlers != null) {
+            int length = Math.min(ic, handlers.length);
+            Arrays.fill(verified, 0, length, false);
+            Arrays.fill(handlers, 0, length, null);
+            Arrays.fill(dispatch, 0, length, Predecoder.UNDECODED);
+        }
+        verifiedWords = null;
+    }
+
+    /**
+     * @return	the dispatch code of a slot, its operation ID unless it is a
+     * 			verified branch or jump
+     */
+    private int dispatchCode(int slot) {
+        int operation = op[slot];
+        if (!verified[slot])
+            return operation;
+        switch (operation) {
+            case Predecoder.JUMP:
+                return JUMP_VERIFIED;
+            case Predecoder.BEQ:
+                return BEQ_VERIFIED;
+            case Predecoder.BNE:
+                return BNE_VERIFIED;
+            default:
+                return operation;
+        }
+    }
+
+    /**
+     * Tells whether an instruction was proven safe by {@link ProgramVerifier},
+     * so that it runs without its runtime checks. The program is verified
+     * again if it changed.
+     * 
+     * @param slot	an instruction slot from 0 to the instruction count - 1
+     * @return		<code>true</code> if the instruction runs unchecked
+     */
+    public boolean isVerified(int slot) {
+        handlers();
+        return verified[slot];
+    }
+
+    /**
+     * The execution loop with a {@link TraceRecorder} or {@link ExecutionCounters}
+     * attached. The clock is read once per slice, not per instruction.
+     */
+    private long runInstrumented(long limit) {
+        ExecutionCounters slice = counters;
+        long start = slice != null ? System.nanoTime() : 0;
+        long count = 0;
+        while (pc < ic && count < limit) {
+            int slot = irSlot = pc++;
+            if (slice != null)
+                slice.count(words[slot]);
+            if (trace != null)
+                executeTraced(slot);
+            else
+                dispatch(op[slot], slot);
+            count++;
+        }
+        retired += count;
+        if (slice != null)
+            slice.addRun(count, System.nanoTime() - start);
+        return count;
+    }
+
+    /**
+     * The execution loop with a {@link BlockCompiler} attached. At the start of
+     * the run and after every instruction that ends a basic block, the loop
+     * looks up the block it enters: a compiled block runs whole when the limit
+     * leaves room for all of its instructions, otherwise the block is
+     * interpreted one instruction at a time.
+     */
+    private long runTiered(long limit) {
+        BlockCompiler jit = compiler;
+        CompiledBlock[] blocks = jit.blocks(this);
+        boolean[] endsBlock = BlockCompiler.ENDS_BLOCK;
+        boolean entry = true;
+        long count = 0;
+        while (pc < ic && count < limit) {
+            if (entry) {
+                CompiledBlock block = blocks[pc];
+                if (block == null)
+                    block = jit.enter(this, pc);
+                if (block != null && block != BlockCompiler.INTERPRETED && block.length <= limit - count) {
+                    irSlot = pc + block.length - 1;
+                    pc = block.execute(gpr, memory);
+                    count += block.length;
+                    continue;
+                }
+            }
+            int slot = irSlot = pc++;
+            int operation = op[slot];
+            dispatch(operation, slot);
+            count++;
+            entry = endsBlock[operation];
+        }
+        retired += count;
+        return count;
+    }
+
+    /**
+     * The execution loop with an {@link InstructionFuser} attached. Each slot
+     * dispatches to the handler the fuser chose for it. A fused handler moves
+     * the instruction pointer through its own sequence with
+     * {@link #retireFused(int, int)} or {@link #advanceFused(int)}, so the
+     * loop is the plain one, run in chunks of dispatches that cannot overrun
+     * the limit even if every one is a fused sequence. The last few instructions before the limit run one at
+     * a time.
+     */
+    private long runFused(long limit) {
+        Operation[] handlers = fuser.handlers(this);
+        long dispatches = 0;
+        long count = 0;
+        fusedExtra = 0;
+        // Each pass dispatches only as often as cannot overrun the budget, even
+        // if every dispatch runs the longest superinstruction.
+        while (pc < ic && limit - count >= InstructionFuser.MAX_LENGTH) {
+            long end = dispatches + (limit - count) / InstructionFuser.MAX_LENGTH;
+            while (pc < ic && dispatches < end) {
+                irSlot = pc++;
+                handlers[irSlot].execute(this, irSlot);
+                dispatches++;
+            }
+            count = dispatches + fusedExtra;
+        }
+        while (pc < ic && count < limit) {
+            irSlot = pc++;
+            dispatch(op[irSlot], irSlot);
+            count++;
+            dispatches++;
+        }
+        retired += count;
+        fuser.addRun(count, dispatches);
+        return count;
+    }
+
+    /**
+     * Moves the instruction pointer past a fused sequence, before its handler
+     * runs the instructions, and counts the instructions beyond the first.
+     * Only for sequences that cannot fail before their last instruction.
+     * 
+     * @param slot		the first instruction slot of the sequence
+     * @param length	the number of instructions in the sequence
+     */
+    void retireFused(int slot, int length) {
+        irSlot = slot + length - 1;
+        pc = slot + length;
+        fusedExtra += length - 1;
+    }
+
+    /**
+     * Moves the instruction pointer onto the next instruction of a fused
+     * sequence, before its handler runs it, and counts it. The pointer then
+     * stays on that instruction if it fails, as in the plain run loop.
+     * 
+     * @param slot		the slot of the instruction about to run
+     */
+    void advanceFused(int slot) {
+        irSlot = slot;
+        pc = slot + 1;
+        fusedExtra++;
+    }
+
+    /**
+     * Executes a slot and records it. The address of a load or store is taken
+     * before the instruction runs, since a load may overwrite its base register.
+     */
+    private void executeTraced(int slot) {
+        if (op[slot] == Predecoder.UNDECODED)
+            decodeSlot(slot);
+        int operation = op[slot];
+        int address;
+        if (operation == Predecoder.LW || operation == Predecoder.SW)
+            address = gpr[rs[slot]] + imm[slot];
+        else if (operation >= Predecoder.FIRST_EXTENSION)
+            address = InstructionSet.extension(operation).address(this, rs[slot], imm[slot]);
+        else
+            address = 0;
+        dispatch(operation, slot);
+
+        int value;
+        switch (operation) {
+            case Predecoder.ADD:
+            case Predecoder.ADDU:
+            case Predecoder.AND:
+            case Predecoder.OR:
+                value = gpr[rd[slot]];
                 break;
-            case 23:
-                lw((ImmediateInstruction) ir);
+            case Predecoder.ADDI:
+            case Predecoder.ADDIU:
+            case Predecoder.ANDI:
+            case Predecoder.ORI:
+            case Predecoder.LW:
+            case Predecoder.SW:
+                value = gpr[rt[slot]];
                 break;
-            case 43:
-                sw((ImmediateInstruction) ir);
+            case Predecoder.JR:
+            case Predecoder.JUMP:
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                value = pc;
                 break;
             default:
+                ExtensionInstruction extension = InstructionSet.extension(operation);
+                if (extension == null)
+                    value = 0;
+                else if (extension.isBranch())
+                    value = pc;
+                else
+                    value = extension.getType().equals("R") ? gpr[rd[slot]] : gpr[rt[slot]];
                 break;
         }
+        trace.record(slot, words[slot], value, address);
+    }
+
+    /**
+     * @return	the attached trace recorder, or <code>null</code> if tracing is off
+     */
+    public TraceRecorder getTrace() {
+        return this.trace;
+    }
+
+    /**
+     * Attaches a trace recorder that every retired instruction is written to,
+     * or turns tracing off with <code>null</code>. The recorder is checked once
+     * per run slice, so a computer without one runs the plain loop.
+     * 
+     * @param newTrace	the recorder, or <code>null</code>
+     */
+    public void setTrace(TraceRecorder newTrace) {
+        this.trace = newTrace;
+    }
+
+    /**
+     * @return	the attached execution counters, or <code>null</code> if counting is off
+     */
+    public ExecutionCounters getCounters() {
+        return this.counters;
+    }
+
+    /**
+     * Attaches execution counters that every retired instruction is counted in,
+     * or turns counting off with <code>null</code>. Like tracing, this is checked
+     * once per run slice, so a computer without counters runs the plain loop.
+     * 
+     * @param newCounters	the counters, or <code>null</code>
+     */
+    public void setCounters(ExecutionCounters newCounters) {
+        this.counters = newCounters;
+    }
+
+    /**
+     * @return	the attached block compiler, or <code>null</code> if only the interpreter runs
+     */
+    public BlockCompiler getCompiler() {
+        return this.compiler;
+    }
+
+    /**
+     * Attaches a block compiler that compiles hot basic blocks to JVM bytecode,
+     * or goes back to interpreting every instruction with <code>null</code>.
+     * Tracing and counting need every instruction to pass through the
+     * interpreter, so a computer with a trace recorder or execution counters
+     * attached does not run compiled blocks.
+     * 
+     * @param newCompiler	the compiler, or <code>null</code>
+     */
+    public void setCompiler(BlockCompiler newCompiler) {
+        this.compiler = newCompiler;
+    }
+
+    /**
+     * @return	the attached instruction fuser, or <code>null</code> if every instruction is dispatched alone
+     */
+    public InstructionFuser getFuser() {
+        return this.fuser;
+    }
+
+    /**
+     * Attaches an instruction fuser that runs common instruction sequences in
+     * one dispatch, or turns fusion off with <code>null</code>. A computer with
+     * a trace recorder, execution counters or a block compiler attached runs
+     * those loops instead.
+     * 
+     * @param newFuser	the fuser, or <code>null</code>
+     */
+    public void setFuser(InstructionFuser newFuser) {
+        this.fuser = newFuser;
     }
 
     /**
@@ -178,10 +1163,14 @@ public final class Computer {
      * @param instruction	the {@link RegisterInstruction} containing register data and add opcode
      */
     void add(RegisterInstruction instruction) {
-        int temp1 = gpr[instruction.getSource()];
-        int temp2 = gpr[instruction.getTarget()];
-        int sum = temp1 + temp2;
-        gpr[instruction.getDestination()] = sum;
+        add(instruction.getSource(), instruction.getTarget(), instruction.getDestination());
+    }
+
+    /**
+     * {@link #add(RegisterInstruction)} on predecoded operands.
+     */
+    void add(int source, int target, int destination) {
+        gpr[destination] = gpr[source] + gpr[target];
     }
 
     /**
@@ -193,9 +1182,16 @@ public final class Computer {
      * @param instruction	the {@link RegisterInstruction} containing register data and addu opcode
      */
     void addu(RegisterInstruction instruction) {
-        long temp1 = gpr[instruction.getSource()] & 0x00000000ffffffffL;
-        long temp2 = gpr[instruction.getTarget()] & 0x00000000ffffffffL;
-        gpr[instruction.getDestination()] = (int) (temp1 + temp2);
+        addu(instruction.getSource(), instruction.getTarget(), instruction.getDestination());
+    }
+
+    /**
+     * {@link #addu(RegisterInstruction)} on predecoded operands.
+     */
+    void addu(int source, int target, int destination) {
+        long temp1 = gpr[source] & 0x00000000ffffffffL;
+        long temp2 = gpr[target] & 0x00000000ffffffffL;
+        gpr[destination] = (int) (temp1 + temp2);
     }
 
     /**
@@ -207,9 +1203,14 @@ public final class Computer {
      * @param instruction	the {@link RegisterInstruction} containing register data and and opcode
      */
     void and(RegisterInstruction instruction) {
-        gpr[instruction.getDestination()] =
-                gpr[instruction.getSource()] &
-                        gpr[instruction.getTarget()];
+        and(instruction.getSource(), instruction.getTarget(), instruction.getDestination());
+    }
+
+    /**
+     * {@link #and(RegisterInstruction)} on predecoded operands.
+     */
+    void and(int source, int target, int destination) {
+        gpr[destination] = gpr[source] & gpr[target];
     }
 
     /**
@@ -221,9 +1222,14 @@ public final class Computer {
      * @param instruction	the {@link RegisterInstruction} containing register data and or opcode
      */
     void or(RegisterInstruction instruction) {
-        gpr[instruction.getDestination()] =
-                gpr[instruction.getSource()] |
-                        gpr[instruction.getTarget()];
+        or(instruction.getSource(), instruction.getTarget(), instruction.getDestination());
+    }
+
+    /**
+     * {@link #or(RegisterInstruction)} on predecoded operands.
+     */
+    void or(int source, int target, int destination) {
+        gpr[destination] = gpr[source] | gpr[target];
     }
 
     /**
@@ -238,8 +1244,14 @@ public final class Computer {
      * @param instruction	the {@link RegisterInstruction} containing register data and jr opcode
      */
     void jr(RegisterInstruction instruction) {
-        int address = gpr[instruction.getSource()];
+        jr(instruction.getSource());
+    }
 
+    /**
+     * {@link #jr(RegisterInstruction)} on predecoded operands.
+     */
+    void jr(int source) {
+        int address = gpr[source];
         if (address >= 0 && address < ic)
             pc = address;
     }
@@ -253,7 +1265,14 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and addi opcode
      */
     void addi(ImmediateInstruction instruction) {
-        gpr[instruction.getTarget()] = gpr[instruction.getSource()] + instruction.getImmediateSigned();
+        addi(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #addi(ImmediateInstruction)} on predecoded operands.
+     */
+    void addi(int source, int target, int immediate) {
+        gpr[target] = gpr[source] + immediate;
     }
 
     /**
@@ -265,11 +1284,14 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and addiu opcode
      */
     void addiu(ImmediateInstruction instruction) {
-        long temp1 = gpr[instruction.getSource()];
-        String stringtemp = Long.toUnsignedString(temp1, 2);
-        temp1 = Long.parseUnsignedLong(stringtemp, 2);
-        long temp2 = instruction.getImmediateUnsigned();
-        gpr[instruction.getTarget()] = (int) (temp1 + temp2);
+        addiu(instruction.getSource(), instruction.getTarget(), instruction.getImmediateUnsigned());
+    }
+
+    /**
+     * {@link #addiu(ImmediateInstruction)} on predecoded operands.
+     */
+    void addiu(int source, int target, int immediate) {
+        gpr[target] = gpr[source] + immediate;
     }
 
     /**
@@ -281,7 +1303,14 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and andi opcode
      */
     void andi(ImmediateInstruction instruction) {
-        gpr[instruction.getTarget()] = gpr[instruction.getSource()] & instruction.getImmediateSigned();
+        andi(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #andi(ImmediateInstruction)} on predecoded operands.
+     */
+    void andi(int source, int target, int immediate) {
+        gpr[target] = gpr[source] & immediate;
     }
 
     /**
@@ -293,7 +1322,14 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and ori opcode
      */
     void ori(ImmediateInstruction instruction) {
-        gpr[instruction.getTarget()] = gpr[instruction.getSource()] | instruction.getImmediateSigned();
+        ori(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #ori(ImmediateInstruction)} on predecoded operands.
+     */
+    void ori(int source, int target, int immediate) {
+        gpr[target] = gpr[source] | immediate;
     }
 
     /**
@@ -308,10 +1344,16 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and lw opcode
      */
     void lw(ImmediateInstruction instruction) {
-    	int address = gpr[instruction.getSource()] + instruction.getImmediateSigned();
-    	if (address >= 0 && address < mem.length)
-    		gpr[instruction.getTarget()] = mem[address];
-    	
+        lw(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #lw(ImmediateInstruction)} on predecoded operands.
+     */
+    void lw(int source, int target, int immediate) {
+        int address = gpr[source] + immediate;
+        if (memory.contains(address, 4))
+            gpr[target] = memory.loadWord(address);
     }
 
     /**
@@ -326,9 +1368,16 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and sw opcode
      */
     void sw(ImmediateInstruction instruction) {
-    	int address = gpr[instruction.getSource()] + instruction.getImmediateSigned();
-    	if (address >= 0 && address < mem.length)
-    		mem[address] = gpr[instruction.getTarget()];
+        sw(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #sw(ImmediateInstruction)} on predecoded operands.
+     */
+    void sw(int source, int target, int immediate) {
+        int address = gpr[source] + immediate;
+        if (memory.contains(address, 4))
+            memory.storeWord(address, gpr[target]);
     }
 
     /**
@@ -344,12 +1393,15 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and beq opcode
      */
     void beq(ImmediateInstruction instruction) {
-        int address = instruction.getImmediateSigned();
-        if (gpr[instruction.getSource()] == gpr[instruction.getTarget()]) {
-        	if (address >= 0 && address < ic) {
-                pc = address;
-            }
-        }
+        beq(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #beq(ImmediateInstruction)} on predecoded operands.
+     */
+    void beq(int source, int target, int address) {
+        if (gpr[source] == gpr[target] && address >= 0 && address < ic)
+            pc = address;
     }
 
     /**
@@ -365,12 +1417,31 @@ public final class Computer {
      * @param instruction	the {@link ImmediateInstruction} containing register data, an immediate value, and bne opcode
      */
     void bne(ImmediateInstruction instruction) {
-        int address = instruction.getImmediateSigned();
-        if (address >= 0 && address < ic) {
-            if (gpr[instruction.getSource()] != gpr[instruction.getTarget()]) {
-                pc = address;
-            }
-        }
+        bne(instruction.getSource(), instruction.getTarget(), instruction.getImmediateSigned());
+    }
+
+    /**
+     * {@link #bne(ImmediateInstruction)} on predecoded operands.
+     */
+    void bne(int source, int target, int address) {
+        if (gpr[source] != gpr[target] && address >= 0 && address < ic)
+            pc = address;
+    }
+
+    /**
+     * {@link #beq(int, int, int)} for an address the verifier proved in range.
+     */
+    void beqVerified(int source, int target, int address) {
+        if (gpr[source] == gpr[target])
+            pc = address;
+    }
+
+    /**
+     * {@link #bne(int, int, int)} for an address the verifier proved in range.
+     */
+    void bneVerified(int source, int target, int address) {
+        if (gpr[source] != gpr[target])
+            pc = address;
     }
 
     /**
@@ -384,10 +1455,22 @@ public final class Computer {
      * @param instruction	the {@link JumpInstruction} containing a jump address and j opcode
      */
     void jump(JumpInstruction instruction) {
-        int address = instruction.getJumpAddress();
+        jump(instruction.getJumpAddress());
+    }
+
+    /**
+     * {@link #jump(JumpInstruction)} on predecoded operands.
+     */
+    void jump(int address) {
         if (address >= 0 && address < ic)
             pc = address;
+    }
 
+    /**
+     * {@link #jump(int)} for an address the verifier proved in range.
+     */
+    void jumpVerified(int address) {
+        pc = address;
     }
 
     /**
@@ -423,10 +1506,10 @@ public final class Computer {
         sb.append("[");
         for (int i = 0; i < ic; i ++) {
             if(i < ic - 1) {
-                sb.append(instructions[i]);
+                sb.append(getInstruction(i));
                 sb.append(", \n");
             } else {
-                sb.append(instructions[i]);
+                sb.append(getInstruction(i));
             }
         }
         sb.append("]");
@@ -434,22 +1517,24 @@ public final class Computer {
     }
 
     /**
-     * Displays the memory data elements.
+     * Displays the memory data elements. Memories larger than the default
+     * 64 words display their first 64 words.
      * 
      * @return	the memory data as a <code>String</code>.
      */
     String displayMemory() {
+        int length = Math.min(memory.size(), MAX_MEMORY);
         StringBuilder sb = new StringBuilder();
         sb.append("[");
-        for (int i = 0; i < mem.length; i ++) {
+        for (int i = 0; i < length; i ++) {
             if (i % 8 == 0 && i !=0) {
                 sb.append("\n");
             }
-            if(i < mem.length - 1) {
-                sb.append(mem[i]);
+            if(i < length - 1) {
+                sb.append(memory.load(i));
                 sb.append(", ");
             } else {
-                sb.append(mem[i]);
+                sb.append(memory.load(i));
             }
         }
         sb.append("]");
@@ -1,4 +1,5 @@
 package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ComputerInstance is a puppeteering class that prevents instantiation
@@ -8,6 +9,11 @@ package mipssim.swain91.git;
  * All of the methods from {@link Computer} class are utilized by
  * ComputerInstance.
  * 
+ * <p>
+ * ComputerInstance is one machine shared by the whole JVM. Code that runs
+ * several programs, or needs isolated state, should create its own
+ * {@link Computer} objects instead.
+ * 
  * @author Samuel Servane
  * @version 1.3
  */
@@ -36,6 +42,13 @@ public enum ComputerInstance {
     	return computer.getIr();
     }
 
+    /**
+     * {@link Computer#setPc(int newPc)}
+     */
+    public void setPc(int newPc) {
+        computer.setPc(newPc);
+    }
+
     /**
      * {@link Computer#insertInstruction(Instruction newInstruction)}
      */
@@ -43,6 +56,34 @@ public enum ComputerInstance {
         computer.insertInstruction(newInstruction);
     }
 
+    /**
+     * {@link Computer#insertWord(int word)}
+     */
+    public void insertWord(int word) {
+        computer.insertWord(word);
+    }
+
+    /**
+     * {@link Computer#load(int[] program, int count)}
+     */
+    public void load(int[] program, int count) {
+        computer.load(program, count);
+    }
+
+    /**
+     * {@link ProgramImage#loadInto(Computer computer)}
+     */
+    public void load(ProgramImage image) {
+        image.loadInto(computer);
+    }
+
+    /**
+     * {@link Computer#setLazyDecoding(boolean lazy)}
+     */
+    public void setLazyDecoding(boolean lazy) {
+        computer.setLazyDecoding(lazy);
+    }
+
     /**
      * {@link Computer#decode(InstructionString is)}
      */
@@ -54,195 +95,128 @@ public enum ComputerInstance {
      * {@link Computer#execute()}
      */
     public void execute() {
-        int opcode = decode(computer.getIr().getInstructionString());
-
-        if (opcode == 0) {
-            String functionString = ((RegisterInstruction) computer.getIr()).getFunction();
-            int function = computer.getIr().getInstructionString().twosComplement(functionString);
-            switch (function) {
-                case 8:
-                    jr((RegisterInstruction) computer.getIr());
-                    break;
-                case 20:
-                    add((RegisterInstruction) computer.getIr());
-                    break;
-                case 21:
-                    addu((RegisterInstruction) computer.getIr());
-                    break;
-                case 24:
-                    and((RegisterInstruction) computer.getIr());
-                    break;
-                case 25:
-                    or((RegisterInstruction) computer.getIr());
-                    break;
-            }
-        }
-        switch(opcode) {
-            case 2:
-                jump((JumpInstruction) computer.getIr());
-                break;
-            case 4:
-                beq((ImmediateInstruction) computer.getIr());
-                break;
-            case 5:
-                bne((ImmediateInstruction) computer.getIr());
-                break;
-            case 8:
-                addi((ImmediateInstruction) computer.getIr());
-                break;
-            case 9:
-                addiu((ImmediateInstruction) computer.getIr());
-                break;
-            case 12:
-                andi((ImmediateInstruction) computer.getIr());
-                break;
-            case 13:
-                ori((ImmediateInstruction) computer.getIr());
-                break;
-            case 23:
-                lw((ImmediateInstruction) computer.getIr());
-                break;
-            case 43:
-                sw((ImmediateInstruction) computer.getIr());
-                break;
-            default:
-                break;
-        }
+        computer.execute();
+    }
+
+    /**
+     * {@link Computer#run()}
+     */
+    public void run() {
+        computer.run();
+    }
+
+    /**
+     * {@link Computer#run(long budget)}
+     */
+    public RunStatus run(long budget) {
+        return computer.run(budget);
+    }
+
+    /**
+     * {@link Computer#run(long budget, long timeout, TimeUnit unit)}
+     */
+    public RunStatus run(long budget, long timeout, TimeUnit unit) {
+        return computer.run(budget, timeout, unit);
     }
 
     /**
      * {@link Computer#add(RegisterInstruction)}
      */
     public void add(RegisterInstruction instruction) {
-        int temp1 = computer.getGpr()[instruction.getSource()];
-        int temp2 = computer.getGpr()[instruction.getTarget()];
-        int sum = temp1 + temp2;
-        computer.getGpr()[instruction.getDestination()] = sum;
+        computer.add(instruction);
     }
 
     /**
      * {@link Computer#addu(RegisterInstruction)}
      */
     public void addu(RegisterInstruction instruction) {
-        long temp1 = computer.getGpr()[instruction.getSource()] & 0x00000000ffffffffL;
-        long temp2 = computer.getGpr()[instruction.getTarget()] & 0x00000000ffffffffL;
-        computer.getGpr()[instruction.getDestination()] = (int) (temp1 + temp2);
+        computer.addu(instruction);
     }
 
     /**
      * {@link Computer#and(RegisterInstruction)}
      */
     public void and(RegisterInstruction instruction) {
-        computer.getGpr()[instruction.getDestination()] =
-                computer.getGpr()[instruction.getSource()] &
-                        computer.getGpr()[instruction.getTarget()];
+        computer.and(instruction);
     }
 
     /**
      * {@link Computer#or(RegisterInstruction)}
      */
     public void or(RegisterInstruction instruction) {
-        computer.getGpr()[instruction.getDestination()] =
-                computer.getGpr()[instruction.getSource()] |
-                        computer.getGpr()[instruction.getTarget()];
+        computer.or(instruction);
     }
 
     /**
      * {@link Computer#jr(RegisterInstruction)}
      */
     public void jr(RegisterInstruction instruction) {
-        int address = instruction.getSource();
-        if (address >= 0 && address < computer.getInstructionCount())
-            computer.setPc(address);
+        computer.jr(instruction);
     }
 
     /**
      * {@link Computer#addi(ImmediateInstruction)}
      */
     public void addi(ImmediateInstruction instruction) {
-        computer.getGpr()[instruction.getTarget()] = computer.getGpr()[instruction.getSource()] + instruction.getImmediateSigned();
+        computer.addi(instruction);
     }
 
     /**
      * {@link Computer#addiu(ImmediateInstruction)}
      */
     public void addiu(ImmediateInstruction instruction) {
-        long temp1 = computer.getGpr()[instruction.getSource()] & 0x00000000ffffffffL;
-        long temp2 = instruction.getImmediateUnsigned() & 0x00000000ffffffffL;
-        computer.getGpr()[instruction.getTarget()] = (int) (temp1 + temp2);
+        computer.addiu(instruction);
     }
 
     /**
      * {@link Computer#andi(ImmediateInstruction)}
      */
     public void andi(ImmediateInstruction instruction) {
-        computer.getGpr()[instruction.getTarget()] = computer.getGpr()[instruction.getSource()] & instruction.getImmediateSigned();
+        computer.andi(instruction);
     }
 
     /**
      * {@link Computer#ori(ImmediateInstruction)}
      */
     public void ori(ImmediateInstruction instruction) {
-        computer.getGpr()[instruction.getTarget()] = computer.getGpr()[instruction.getSource()] | instruction.getImmediateSigned();
+        computer.ori(instruction);
     }
 
     /**
      * {@link Computer#lw(ImmediateInstruction)}
      */
     public void lw(ImmediateInstruction instruction) {
-    	int address = computer.getGpr()[instruction.getSource()] + instruction.getImmediateSigned();
-    	if (address >= 0 && address < computer.getMem().length)
-    		computer.getGpr()[instruction.getTarget()] = computer.getMem()[instruction.getSource() + instruction.getImmediateSigned()];
+        computer.lw(instruction);
     }
 
-
     /**
      * {@link Computer#sw(ImmediateInstruction)}
      */
     public void sw(ImmediateInstruction instruction) {
-    	int address = computer.getGpr()[instruction.getSource()] + instruction.getImmediateSigned();
-    	if (address >= 0 && address < computer.getMem().length)
-    		computer.getMem()[instruction.getSource() + instruction.getImmediateSigned()] = computer.getGpr()[instruction.getTarget()];
+        computer.sw(instruction);
     }
 
-
     /**
      * {@link Computer#beq(ImmediateInstruction)}
      */
-    public void beq(ImmediateInstruction beqInstruction) {
-        int address = beqInstruction.getImmediateSigned();
-        if (address >= 0 && address < computer.getInstructionCount()) {
-            if (computer.getGpr()[beqInstruction.getSource()] == computer.getGpr()[beqInstruction.getTarget()]) {
-                computer.setPc(address);
-            }
-        }
+    public void beq(ImmediateInstruction instruction) {
+        computer.beq(instruction);
     }
 
-
     /**
      * {@link Computer#bne(ImmediateInstruction)}
      */
-    public void bne(ImmediateInstruction bneInstruction) {
-        int address = bneInstruction.getImmediateSigned();
-        if (address >= 0 && address < computer.getInstructionCount()) {
-            if (computer.getGpr()[bneInstruction.getSource()] != computer.getGpr()[bneInstruction.getTarget()]) {
-                computer.setPc(address);
-            }
-        }
+    public void bne(ImmediateInstruction instruction) {
+        computer.bne(instruction);
     }
 
-
     /**
      * {@link Computer#jump(JumpInstruction)}
      */
-    public void jump(JumpInstruction jInstruction) {
-        int address = jInstruction.getJumpAddress();
-        if (address >= 0 && address < computer.getInstructionCount())
-            computer.setPc(address);
-
+    public void jump(JumpInstruction instruction) {
+        computer.jump(instruction);
     }
 
-
     /**
      * {@link Computer#displayRegisters()}
      */
@@ -2,6 +2,15 @@ package mipssim.swain91.git;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.management.ThreadMXBean;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -540,4 +549,255 @@ public class ComputerTest {
 				+ "0, 0, 0, 0, 0, 0, 0, 0, \n"
 				+ "0, 0, 0, 0, 0, 0, 0, 0]", test.displayMemory());
 	}
+	
+	@Test
+	void shouldGrowInstructionList() {
+		Computer test = new Computer();
+		for (int i = 0; i < 100; i++) {
+			test.insertInstruction(new ImmediateInstruction(new InstructionString("00100000000000000000000000000001")));
+		}
+		test.run();
+		
+		assertEquals(100, test.getInstructionCount());
+		assertEquals(100, test.getGpr()[0]);
+	}
+	
+	@Test
+	void shouldLoadWordsWithoutInstructions() {
+		Computer test = new Computer();
+		test.load(new int[] { InstructionString.parseWord("00100000000000000000000000000101"), 
+				InstructionString.parseWord("00000000000000000000000000010100") }, 2);
+		
+		test.run();
+		
+		assertEquals(10, test.getGpr()[0]);
+		assertEquals("add", test.getIr().getName());
+		assertEquals("[addi $s: 0, $t: 0, i: 5, \nadd $s: 0, $t: 0, $d: 0]", test.displayInstructions());
+	}
+	
+	@Test
+	void shouldRunLoop() {
+		Computer test = loopProgram(1000);
+		test.run();
+		
+		assertEquals(1000, test.getGpr()[1]);
+		assertEquals(2, test.getPc());
+	}
+	
+	@Test
+	void shouldRunLoopWithoutAllocating() {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		long id = Thread.currentThread().getId();
+		
+		// Warm up so class loading and compilation are not counted
+		for (int i = 0; i < 5; i++) {
+			loopProgram(100000).run();
+		}
+		
+		Computer test = loopProgram(10000000);
+		long before = threads.getThreadAllocatedBytes(id);
+		test.run();
+		long allocated = threads.getThreadAllocatedBytes(id) - before;
+		
+		assertEquals(10000000, test.getGpr()[1]);
+		assertEquals(0, allocated, "bytes allocated while running");
+	}
+	
+	@Test
+	void shouldStopAtBudget() {
+		Computer test = new Computer();
+		test.insertWord(InstructionString.parseWord("00001000000000000000000000000000"));
+		
+		assertEquals(RunStatus.BUDGET_EXHAUSTED, test.run(100000));
+		assertEquals(100000, test.getRetired());
+		assertEquals(RunStatus.BUDGET_EXHAUSTED, test.run(500));
+		assertEquals(100500, test.getRetired());
+	}
+	
+	@Test
+	void shouldStopAtTimeout() {
+		Computer test = new Computer();
+		test.insertWord(InstructionString.parseWord("00001000000000000000000000000000"));
+		
+		assertEquals(RunStatus.TIMED_OUT, test.run(Long.MAX_VALUE, 20, TimeUnit.MILLISECONDS));
+		assertEquals(0, test.getPc());
+	}
+	
+	@Test
+	void shouldHaltWithinBudget() {
+		Computer test = loopProgram(10);
+		
+		assertEquals(RunStatus.HALTED, test.run(20));
+		assertEquals(20, test.getRetired());
+		
+		test = loopProgram(10);
+		assertEquals(RunStatus.BUDGET_EXHAUSTED, test.run(19));
+		assertEquals(RunStatus.HALTED, test.run(1, 1, TimeUnit.SECONDS));
+		assertEquals(10, test.getRegister(1));
+	}
+	
+	@Test
+	void shouldRestoreSnapshot() {
+		Computer test = loopProgram(1000);
+		test.getMemory().store(5, 42);
+		Snapshot snapshot = test.snapshot();
+		test.run();
+		test.getMemory().store(5, 7);
+		
+		test.restore(snapshot);
+		
+		assertEquals(0, test.getPc());
+		assertEquals(0, test.getRegister(1));
+		assertEquals(0, test.getRetired());
+		assertEquals(42, test.getMemory().load(5));
+		test.run();
+		assertEquals(1000, test.getRegister(1));
+		assertEquals(42, new Computer(snapshot).getMemory().load(5));
+	}
+	
+	@Test
+	void shouldForkIndependentComputer() {
+		Computer parent = loopProgram(1000);
+		parent.run();
+		Computer child = parent.fork();
+		child.setRegister(2, 2000);
+		child.setPc(0);
+		child.insertWord(InstructionString.parseWord("00100000011000110000000000000101"));
+		child.run();
+		
+		assertEquals(1000, parent.getRegister(1));
+		assertEquals(2, parent.getInstructionCount());
+		assertEquals(2000, child.getRegister(1));
+		assertEquals(5, child.getRegister(3));
+		assertEquals(3, child.getInstructionCount());
+		
+		parent.insertWord(InstructionString.parseWord("00100000100001000000000000000001"));
+		parent.run();
+		assertEquals(1, parent.getRegister(4));
+		assertEquals(0, child.getRegister(4));
+		assertEquals(0x20630005, child.getWords()[2]);
+	}
+	
+	@Test
+	void shouldDecodeOnFirstExecution() {
+		int[] program = {
+				InstructionString.parseWord("00100000001000010000000000000001"), // addi $1, $1, 1
+				InstructionString.parseWord("00001000000000000000000000000011"), // jump 3
+				InstructionString.parseWord("00100000011000110000000000000101"), // addi $3, $3, 5
+				InstructionString.parseWord("00010100001000100000000000000000")  // bne  $1, $2, 0
+		};
+		Computer test = new Computer();
+		test.setLazyDecoding(true);
+		test.load(program, program.length);
+		test.setRegister(2, 100);
+		
+		for (int slot = 0; slot < 4; slot++) {
+			assertEquals(Predecoder.UNDECODED, test.getOp()[slot]);
+		}
+		assertFalse(test.isVerified(1));
+		test.run();
+		
+		assertEquals(100, test.getRegister(1));
+		assertEquals(0, test.getRegister(3));
+		assertEquals(300, test.getRetired());
+		assertEquals(Predecoder.JUMP, test.getOp()[1]);
+		assertEquals(Predecoder.UNDECODED, test.getOp()[2]);
+		assertTrue(test.isVerified(1));
+		assertTrue(test.isVerified(3));
+	}
+	
+	@Test
+	void shouldNotTouchColdSlotsOnFirstStep() {
+		int[] program = new int[1000];
+		Arrays.fill(program, InstructionString.parseWord("00100000001000010000000000000001")); // addi $1, $1, 1
+		Computer test = new Computer();
+		test.load(program, program.length);
+		test.run();
+		assertEquals(1000, test.getRegister(1));
+		
+		test.reset();
+		test.setLazyDecoding(true);
+		test.load(program, program.length);
+		test.run(1);
+		
+		assertEquals(1, test.getRegister(1));
+		assertEquals(Predecoder.ADDI, test.getOp()[0]);
+		assertTrue(test.isVerified(0));
+		for (int slot = 1; slot < program.length; slot++) {
+			assertEquals(Predecoder.UNDECODED, test.getOp()[slot]);
+			assertEquals(null, test.handlers()[slot]);
+			assertFalse(test.isVerified(slot));
+		}
+		test.run();
+		assertEquals(1000, test.getRegister(1));
+		assertTrue(test.isVerified(999));
+	}
+	
+	@Test
+	void shouldDecodeWholeProgramForPasses() {
+		Computer test = new Computer();
+		test.setLazyDecoding(true);
+		test.insertWord(InstructionString.parseWord("00100000001000010000000000000001"));
+		test.insertWord(InstructionString.parseWord("00010100001000100000000000000000"));
+		test.setRegister(2, 1000);
+		test.setFuser(new InstructionFuser());
+		test.run();
+		
+		assertEquals(1000, test.getRegister(1));
+		assertEquals(1000, test.getFuser().getSavedDispatches());
+		
+		Computer lazy = new Computer();
+		lazy.setLazyDecoding(true);
+		lazy.insertWord(InstructionString.parseWord("00100000011000110000000000000101"));
+		Computer child = new Computer(lazy.snapshot());
+		assertEquals(Predecoder.ADDI, lazy.getOp()[0]);
+		child.run();
+		assertEquals(5, child.getRegister(3));
+	}
+	
+	@Test
+	void shouldTraceLazilyDecodedSlot() {
+		Computer test = new Computer();
+		test.setLazyDecoding(true);
+		test.insertWord(InstructionString.parseWord("00100000011000110000000000000101"));
+		TraceRecorder trace = new TraceRecorder(4);
+		test.setTrace(trace);
+		test.run();
+		
+		assertEquals(5, test.getRegister(3));
+		assertEquals(1, trace.size());
+	}
+	
+	@Test
+	void shouldResetComputer() {
+		Computer test = loopProgram(1000);
+		test.getMemory().store(5, 9);
+		test.run();
+		Snapshot snapshot = test.snapshot();
+		test.reset();
+		
+		assertEquals(0, test.getInstructionCount());
+		assertEquals(0, test.getPc());
+		assertEquals(0, test.getRetired());
+		assertEquals(0, test.getRegister(1));
+		assertEquals(0, test.getMemory().load(5));
+		
+		test.insertWord(InstructionString.parseWord("00100000011000110000000000000101"));
+		test.run();
+		assertEquals(5, test.getRegister(3));
+		assertEquals(0x20630005, test.getInstruction(0).getInstructionString().getWord());
+		assertEquals(2, new Computer(snapshot).getInstructionCount());
+	}
+	
+	/**
+	 * Builds a two instruction loop that increments $1 until it equals $2.
+	 */
+	private static Computer loopProgram(int iterations) {
+		Computer test = new Computer();
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("00100000001000010000000000000001")));
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("00010100001000100000000000000000")));
+		test.getGpr()[2] = iterations;
+		return test;
+	}
 }
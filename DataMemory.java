@@ -0,0 +1,150 @@
+package mipssim.swain91.git;
+
+/**
+ * The base interface for the data memory of a {@link Computer}. Memory is word
+ * addressed; addresses run from 0 to {@link #size()} - 1. Implementations decide
+ * how the words are stored, for example {@link ArrayMemory} and {@link PagedMemory}.
+ * 
+ * <p>
+ * The load and store instructions go through {@link #contains(int, int)} and the
+ * word, halfword and byte accessors, whose address is the effective address the
+ * instruction computed. By default that is a word address, as above, and a
+ * halfword or byte access reads or replaces the low-order bits of the word, which
+ * keeps the behaviour of programs written for word-indexed memory. A
+ * {@link #isByteAddressed() byte addressed} memory such as {@link ByteMemory}
+ * overrides them so that the effective address is a byte address.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public interface DataMemory {
+
+    /**
+     * @return	the number of addressable words
+     */
+    int size();
+
+    /**
+     * @param address	a word address
+     * @return			whether the address is inside this memory
+     */
+    default boolean contains(int address) {
+        return address >= 0 && address < size();
+    }
+
+    /**
+     * Reads the word at an address inside this memory.
+     * 
+     * @param address	a word address for which {@link #contains(int)} holds
+     * @return			the stored word
+     */
+    int load(int address);
+
+    /**
+     * Writes the word at an address inside this memory.
+     * 
+     * @param address	a word address for which {@link #contains(int)} holds
+     * @param value		the word to store
+     */
+    void store(int address, int value);
+
+    /**
+     * @return	<code>true</code> if the effective addresses of load and store
+     * 			instructions are byte addresses, <code>false</code> if they are
+     * 			word addresses
+     */
+    default boolean isByteAddressed() {
+        return false;
+    }
+
+    /**
+     * @param address	the effective address of a load or store instruction
+     * @param width		the number of bytes accessed, 1, 2 or 4
+     * @return			whether the access is inside this memory
+     */
+    default boolean contains(int address, int width) {
+        return contains(address);
+    }
+
+    /**
+     * Reads the word of a <code>lw</code>.
+     * 
+     * @param address	an effective address for which {@link #contains(int, int)} holds
+     * @return			the stored word
+     */
+    default int loadWord(int address) {
+        return load(address);
+    }
+
+    /**
+     * Writes the word of a <code>sw</code>.
+     * 
+     * @param address	an effective address for which {@link #contains(int, int)} holds
+     * @param value		the word to store
+     */
+    default void storeWord(int address, int value) {
+        store(address, value);
+    }
+
+    /**
+     * Reads the halfword of a <code>lh</code> or <code>lhu</code>.
+     * 
+     * @param address	an effective address for which {@link #contains(int, int)} holds
+     * @return			the stored halfword, zero extended
+     */
+    default int loadHalf(int address) {
+        return load(address) & 0xffff;
+    }
+
+    /**
+     * Writes the halfword of a <code>sh</code>.
+     * 
+     * @param address	an effective address for which {@link #contains(int, int)} holds
+     * @param value		a value whose low 16 bits are stored
+     */
+    default void storeHalf(int address, int value) {
+        store(address, (load(address) & 0xffff0000) | (value & 0xffff));
+    }
+
+    /**
+     * Reads the byte of a <code>lb</code> or <code>lbu</code>.
+     * 
+     * @param address	an effective address for which {@link #contains(int, int)} holds
+     * @return			the stored byte, zero extended
+     */
+    default int loadByte(int address) {
+        return load(address) & 0xff;
+    }
+
+    /**
+     * Writes the byte of a <code>sb</code>.
+     * 
+     * @param address	an effective address for which {@link #contains(int, int)} holds
+     * @param value		a value whose low 8 bits are stored
+     */
+    default void storeByte(int address, int value) {
+        store(address, (load(address) & 0xffffff00) | (value & 0xff));
+    }
+
+    /**
+     * Sets every word to zero. The default stores a zero over each word that
+     * is not zero already, so it takes time in proportion to {@link #size()}.
+     */
+    default void clear() {
+        for (int address = 0; address < size(); address++) {
+            if (load(address) != 0)
+                store(address, 0);
+        }
+    }
+
+    /**
+     * Creates an independent copy of this memory, for a forked {@link Computer}.
+     * Writes to either memory afterwards are not seen by the other.
+     * 
+     * @return	a memory with the same size and contents
+     * @throws UnsupportedOperationException	if this memory cannot be copied
+     */
+    default DataMemory fork() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be forked");
+    }
+}
@@ -0,0 +1,201 @@
+package mipssim.swain91.git;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Per-opcode and per-function retired instruction counts, the total retired and
+ * the running time of a {@link Computer}. Attach them with
+ * {@link Computer#setCounters(ExecutionCounters)}.
+ *
+ * <p>
+ * Counts are plain fields written only by the thread running the machine, so
+ * counting never contends with other machines. Readers on other threads, such
+ * as a JMX client, see values that may trail the running machine slightly.
+ * {@link #reset()} does not write the counts either: it keeps a copy of them as
+ * the new zero, which every reader subtracts, so it is safe from any thread.
+ * Several counters are combined when read, by {@link #add(ExecutionCounters)},
+ * rather than shared while running.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class ExecutionCounters implements ExecutionCountersMXBean {
+
+    /**
+     * The JMX domain the counters are registered under.
+     */
+    public static final String DOMAIN = "mipssim.swain91.git";
+
+    /**
+     * Counts indexed by {@link Predecoder#key(int, int)}.
+     */
+    private final long[] counts = new long[128];
+    private long retired;
+    private long runNanos;
+
+    /**
+     * The counts at the last {@link #reset()}, taken away by every reader.
+     */
+    private volatile ExecutionCounters zero = NONE;
+    private static final ExecutionCounters NONE = new ExecutionCounters();
+
+    /**
+     * Counts one retired instruction.
+     *
+     * @param word	the instruction as a packed <code>int</code>
+     */
+    void count(int word) {
+        counts[Predecoder.key(word >>> 26, word & 0x3f)]++;
+    }
+
+    /**
+     * Adds the totals of a run that has finished.
+     *
+     * @param instructions	the instructions retired by the run
+     * @param nanos			the time the run took
+     */
+    void addRun(long instructions, long nanos) {
+        retired += instructions;
+        runNanos += nanos;
+    }
+
+    /**
+     * Adds the counts of another machine to these.
+     *
+     * @param other	the counters to add
+     */
+    public void add(ExecutionCounters other) {
+        ExecutionCounters otherZero = other.zero;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i] - otherZero.counts[i];
+        }
+        retired += other.retired - otherZero.retired;
+        runNanos += other.runNanos - otherZero.runNanos;
+    }
+
+    /**
+     * Takes away counts added earlier, such as a baseline taken before a run.
+     *
+     * @param other	the counters to take away
+     */
+    void subtract(ExecutionCounters other) {
+        ExecutionCounters otherZero = other.zero;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= other.counts[i] - otherZero.counts[i];
+        }
+        retired -= other.retired - otherZero.retired;
+        runNanos -= other.runNanos - otherZero.runNanos;
+    }
+
+    /**
+     * @param opcode	the 6 bit opcode
+     * @return			the instructions retired with the opcode
+     */
+    public long getOpcodeCount(int opcode) {
+        ExecutionCounters zero = this.zero;
+        if (opcode != 0)
+            return count(zero, Predecoder.key(opcode, 0));
+        long total = 0;
+        for (int function = 0; function < 64; function++) {
+            total += count(zero, Predecoder.key(0, function));
+        }
+        return total;
+    }
+
+    /**
+     * @param function	the 6 bit function code of a register instruction
+     * @return			the register instructions retired with the function code
+     */
+    public long getFunctionCount(int function) {
+        return count(zero, Predecoder.key(0, function));
+    }
+
+    private long count(ExecutionCounters zero, int key) {
+        return counts[key] - zero.counts[key];
+    }
+
+    @Override
+    public long getRetired() {
+        return this.retired - zero.retired;
+    }
+
+    @Override
+    public long getRunNanos() {
+        return this.runNanos - zero.runNanos;
+    }
+
+    @Override
+    public double getInstructionsPerSecond() {
+        ExecutionCounters zero = this.zero;
+        long nanos = runNanos - zero.runNanos;
+        return nanos == 0 ? 0 : (retired - zero.retired) * 1e9 / nanos;
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> operations = new TreeMap<>();
+        InstructionFactory factory = InstructionFactory.getInstance();
+        ExecutionCounters zero = this.zero;
+        for (int key = 0; key < counts.length; key++) {
+            long count = count(zero, key);
+            if (count == 0)
+                continue;
+            int word = key < 64 ? key << 26 : key & 0x3f;
+            String name = factory.createInstruction(word).getName();
+            if (name == null)
+                name = key < 64 ? "opcode " + key : "funct " + (key & 0x3f);
+            operations.merge(name, count, Long::sum);
+        }
+        return operations;
+    }
+
+    /**
+     * Sets every count back to zero by keeping a copy of the counts as the new
+     * zero. The counts themselves are only ever written by the machine, so a
+     * reset from another thread cannot lose or tear an update.
+     */
+    @Override
+    public void reset() {
+        ExecutionCounters snapshot = new ExecutionCounters();
+        System.arraycopy(counts, 0, snapshot.counts, 0, counts.length);
+        snapshot.retired = retired;
+        snapshot.runNanos = runNanos;
+        zero = snapshot;
+    }
+
+    /**
+     * Registers counters as a platform MBean named
+     * <code>mipssim.swain91.git:type=ExecutionCounters,name=<i>name</i></code>.
+     *
+     * @param counters	the counters of a machine or a pool
+     * @param name		a name unique among the registered counters
+     * @return			the name the MBean was registered under
+     * @throws IllegalStateException	if the MBean cannot be registered
+     */
+    public static ObjectName register(ExecutionCountersMXBean counters, String name) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=ExecutionCounters,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(counters, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register execution counters " + name, e);
+        }
+    }
+
+    /**
+     * Removes an MBean registered by {@link #register(ExecutionCountersMXBean, String)}.
+     *
+     * @param objectName	the name returned when it was registered
+     */
+    public static void unregister(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + objectName, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package mipssim.swain91.git;
+import java.util.Map;
+
+/**
+ * The management interface of {@link ExecutionCounters}, published as a platform
+ * MBean for one machine or as the aggregate of a {@link SimulationPool}.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public interface ExecutionCountersMXBean {
+
+    /**
+     * @return	the number of instructions retired
+     */
+    long getRetired();
+
+    /**
+     * @return	the time spent running instructions, in nanoseconds
+     */
+    long getRunNanos();
+
+    /**
+     * @return	the retired instructions per second of running time
+     */
+    double getInstructionsPerSecond();
+
+    /**
+     * Returns the retired count of each instruction that ran at least once, by
+     * name. Register instructions are counted by function code and the others
+     * by opcode; encodings that are not a known instruction are named
+     * <code>opcode N</code> or <code>funct N</code>.
+     * 
+     * @return	the retired counts by instruction name
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * Sets every count back to zero.
+     */
+    void reset();
+}
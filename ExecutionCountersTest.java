@@ -0,0 +1,174 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ExecutionCounters} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class ExecutionCountersTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting ExecutionCounters.java tests...");
+	}
+	
+	@Test
+	void shouldCountByOpcodeAndFunction() {
+		Computer computer = loopProgram(100);
+		computer.insertWord(InstructionString.parseWord("00000000001000010001100000010100")); // add $3, $1, $1
+		computer.insertWord(0xfc000000);
+		ExecutionCounters test = new ExecutionCounters();
+		computer.setCounters(test);
+		computer.run();
+		
+		assertEquals(202, test.getRetired());
+		assertEquals(100, test.getOpcodeCount(8));
+		assertEquals(100, test.getOpcodeCount(5));
+		assertEquals(1, test.getOpcodeCount(0));
+		assertEquals(1, test.getFunctionCount(20));
+		assertEquals(1, test.getOpcodeCount(63));
+		assertEquals(Map.of("addi", 100L, "bne", 100L, "add", 1L, "opcode 63", 1L), test.getOperationCounts());
+		assertTrue(test.getRunNanos() > 0);
+		assertTrue(test.getInstructionsPerSecond() > 0);
+	}
+	
+	@Test
+	void shouldCountSingleSteps() {
+		Computer computer = loopProgram(100);
+		ExecutionCounters test = new ExecutionCounters();
+		computer.setCounters(test);
+		computer.fetch();
+		computer.execute();
+		
+		assertEquals(1, test.getRetired());
+		assertEquals(1, test.getOpcodeCount(8));
+	}
+	
+	@Test
+	void shouldAddAndReset() {
+		ExecutionCounters first = new ExecutionCounters();
+		ExecutionCounters second = new ExecutionCounters();
+		Computer computer = loopProgram(10);
+		computer.setCounters(first);
+		computer.run();
+		computer = loopProgram(5);
+		computer.setCounters(second);
+		computer.run();
+		
+		first.add(second);
+		assertEquals(30, first.getRetired());
+		assertEquals(15, first.getOpcodeCount(8));
+		
+		first.reset();
+		assertEquals(0, first.getRetired());
+		assertTrue(first.getOperationCounts().isEmpty());
+	}
+	
+	@Test
+	void shouldAggregatePool() {
+		List<Computer> computers = new ArrayList<>();
+		for (int i = 1; i <= 20; i++) {
+			computers.add(loopProgram(i * 100));
+		}
+		
+		try (SimulationPool pool = new SimulationPool(2)) {
+			ExecutionCountersMXBean test = pool.getCounters();
+			pool.runAll(computers);
+			assertEquals(0, test.getRetired());
+			
+			pool.setCounting(true);
+			for (Computer computer : computers) {
+				computer.setPc(0);
+				computer.setRegister(1, 0);
+			}
+			pool.runAll(computers);
+			assertEquals(2 * 100 * 210, test.getRetired());
+			assertEquals(100 * 210, (long) test.getOperationCounts().get("bne"));
+			
+			computers.get(0).setPc(0);
+			computers.get(0).setRegister(1, 0);
+			pool.submit(computers.get(0), 50).join();
+			assertEquals(2 * 100 * 210 + 200, test.getRetired());
+			assertTrue(test.getInstructionsPerSecond() > 0);
+		}
+	}
+	
+	@Test
+	void shouldCountFromReset() {
+		Computer computer = loopProgram(10);
+		ExecutionCounters test = new ExecutionCounters();
+		computer.setCounters(test);
+		computer.run();
+		test.reset();
+		computer.setPc(0);
+		computer.setRegister(1, 5);
+		computer.run();
+		
+		assertEquals(10, test.getRetired());
+		assertEquals(5, test.getOpcodeCount(5));
+		assertEquals(Map.of("addi", 5L, "bne", 5L), test.getOperationCounts());
+		
+		ExecutionCounters sum = new ExecutionCounters();
+		sum.add(test);
+		assertEquals(10, sum.getRetired());
+	}
+	
+	@Test
+	void shouldResetPoolFromAnyThread() {
+		try (SimulationPool pool = new SimulationPool(2)) {
+			pool.setCounting(true);
+			ExecutionCountersMXBean test = pool.getCounters();
+			Computer computer = loopProgram(100);
+			pool.submit(computer).join();
+			test.reset();
+			assertEquals(0, test.getRetired());
+			
+			computer.setPc(0);
+			computer.setRegister(1, 50);
+			pool.submit(computer).join();
+			assertEquals(100, test.getRetired());
+			assertEquals(50L, (long) test.getOperationCounts().get("bne"));
+		}
+	}
+	
+	@Test
+	void shouldRegisterMBean() throws JMException {
+		Computer computer = loopProgram(1000);
+		computer.setCounters(new ExecutionCounters());
+		computer.run();
+		
+		ObjectName name = ExecutionCounters.register(computer.getCounters(), "test machine");
+		try {
+			assertEquals(2000L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Retired"));
+		} finally {
+			ExecutionCounters.unregister(name);
+		}
+		assertTrue(!ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+	
+	/**
+	 * Builds a two instruction loop that increments $1 until it equals $2.
+	 */
+	private static Computer loopProgram(int iterations) {
+		Computer computer = new Computer();
+		computer.insertWord(InstructionString.parseWord("00100000001000010000000000000001"));
+		computer.insertWord(InstructionString.parseWord("00010100001000100000000000000000"));
+		computer.setRegister(2, iterations);
+		return computer;
+	}
+}
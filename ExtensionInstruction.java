@@ -0,0 +1,158 @@
+package mipssim.swain91.git;
+
+/**
+ * One instruction supplied by an {@link InstructionExtension}: its encoding,
+ * its name, how its immediate operand is decoded and how it executes.
+ *
+ * <p>
+ * A register instruction is identified by opcode 0 and its function code,
+ * any other instruction by its opcode alone. When the instruction is loaded its
+ * register fields and {@link #decodeImmediate(int) immediate} are decoded once
+ * into the predecoded slot, and every time it runs
+ * {@link #execute(Computer, int, int, int, int)} gets them as they are.
+ *
+ * <p>
+ * The instruction is itself the handler in the handler table of
+ * {@link Computer}, so running it is one table lookup and one call. An
+ * instruction that may change the instruction pointer must say so with
+ * {@link #isBranch()}.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public abstract class ExtensionInstruction extends Operation {
+
+    private final String name;
+    private final String type;
+    private final int opcode;
+    private final int function;
+
+    /**
+     * Creates a register instruction.
+     *
+     * @param name		the assembly name
+     * @param function	the 6 bit function code
+     */
+    protected ExtensionInstruction(String name, int function) {
+        this(name, "R", 0, function);
+    }
+
+    /**
+     * Creates an instruction of any type.
+     *
+     * @param name		the assembly name
+     * @param type		<code>"R"</code>, <code>"I"</code> or <code>"J"</code>, as
+     * 					{@link InstructionString#getType()}
+     * @param opcode	the 6 bit opcode, 0 only for a register instruction
+     * @param function	the 6 bit function code of a register instruction, otherwise 0
+     */
+    protected ExtensionInstruction(String name, String type, int opcode, int function) {
+        if (!type.equals("R") && !type.equals("I") && !type.equals("J"))
+            throw new IllegalArgumentException("Unknown instruction type " + type + " for " + name);
+        if ((opcode == 0) != type.equals("R"))
+            throw new IllegalArgumentException("Only register instructions have opcode 0: " + name);
+        if (opcode < 0 || opcode > 63 || function < 0 || function > 63 || (opcode != 0 && function != 0))
+            throw new IllegalArgumentException("Invalid encoding " + opcode + "/" + function + " for " + name);
+        this.name = name;
+        this.type = type;
+        this.opcode = opcode;
+        this.function = function;
+    }
+
+    public final String getName() { return this.name; }
+
+    public final String getType() { return this.type; }
+
+    public final int getOpcode() { return this.opcode; }
+
+    public final int getFunction() { return this.function; }
+
+    /**
+     * Whether the instruction may change the instruction pointer, which ends
+     * a basic block after it. <code>false</code> unless overridden.
+     *
+     * @return	<code>true</code> if the instruction may branch or jump
+     */
+    public boolean isBranch() {
+        return false;
+    }
+
+    /**
+     * Decodes the immediate operand of a packed instruction word, once, when it
+     * is loaded. By default this is the shift amount of a register instruction,
+     * the jump address of a jump instruction and the sign extended immediate
+     * of any other instruction.
+     *
+     * @param word	the instruction as a packed <code>int</code>
+     * @return		the operand passed to {@link #execute(Computer, int, int, int, int)}
+     */
+    public int decodeImmediate(int word) {
+        switch (type) {
+            case "R":
+                return (word >>> 6) & 0x1f;
+            case "J":
+                return (word << 6) >> 6;
+            default:
+                return (short) word;
+        }
+    }
+
+    /**
+     * The effective address a load or store accesses, recorded by a
+     * {@link TraceRecorder}. It is taken before the instruction runs, since a
+     * load may overwrite its base register. 0 unless overridden, as for the
+     * core instructions that do not access memory.
+     *
+     * @param computer	the computer the instruction is about to run on
+     * @param source	the source register number
+     * @param immediate	the decoded immediate operand
+     * @return			the effective address, or 0 for no memory access
+     */
+    public int address(Computer computer, int source, int immediate) {
+        return 0;
+    }
+
+    /**
+     * Whether the instruction loads its target register from memory, so that a
+     * {@link TraceRecorder} shows the value with its {@link #address address}.
+     * <code>false</code> unless overridden.
+     *
+     * @return	<code>true</code> if the instruction is a load
+     */
+    public boolean isLoad() {
+        return false;
+    }
+
+    /**
+     * Whether the instruction stores its target register to memory.
+     * <code>false</code> unless overridden.
+     *
+     * @return	<code>true</code> if the instruction is a store
+     */
+    public boolean isStore() {
+        return false;
+    }
+
+    /**
+     * Executes the instruction. The instruction pointer already points to the
+     * next instruction.
+     *
+     * @param computer		the computer the instruction runs on
+     * @param source		the source register number
+     * @param target		the target register number
+     * @param destination	the destination register number
+     * @param immediate		the decoded immediate operand
+     */
+    public abstract void execute(Computer computer, int source, int target, int destination, int immediate);
+
+    @Override
+    final void execute(Computer computer, int slot) {
+        execute(computer, computer.getRs()[slot], computer.getRt()[slot], computer.getRd()[slot],
+                computer.getImm()[slot]);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -9,24 +9,21 @@ package mipssim.swain91.git;
  */
 public class ImmediateInstruction implements Instruction {
 	
-    private InstructionString instructionString;
-    private String opcode;
+    private final InstructionString instructionString;
     private String name;
-    private int source;
-    private int target;
-    private int immediateSigned;
-    private int immediateUnsigned;
+    private final int source;
+    private final int target;
+    private final int immediateSigned;
+    private final int immediateUnsigned;
 
     public ImmediateInstruction(InstructionString is) {
         this.instructionString = is;
-        this.opcode = is.parseOpcode();
         this.source = is.parseSource();
         this.target = is.parseTarget();
         this.immediateSigned = is.parseImmediateSigned();
         this.immediateUnsigned = is.parseImmediateUnsigned();
 
-        int op = (int) Long.parseLong(this.opcode, 2);
-        determineName(op);
+        determineName(is.parseOpcodeValue());
     }
 
     @Override
@@ -36,7 +33,7 @@ public class ImmediateInstruction implements Instruction {
 
     @Override
     public String getOpcode() {
-        return this.opcode;
+        return this.instructionString.parseOpcode();
     }
 
     public int getSource() { return this.source; }
@@ -55,33 +52,7 @@ public class ImmediateInstruction implements Instruction {
 
     @Override
     public void determineName(int opcode) {
-        switch (opcode) {
-            case 4:
-                this.name = "beq";
-                break;
-            case 5:
-                this.name = "bne";
-                break;
-            case 8:
-                this.name = "addi";
-                break;
-            case 9:
-                this.name = "addiu";
-                break;
-            case 12:
-                this.name = "andi";
-                break;
-            case 13:
-                this.name = "ori";
-                break;
-            case 23:
-                this.name = "lw";
-                break;
-            case 43:
-                this.name = "sw";
-            default:
-                break;
-        }
+        this.name = InstructionSet.name("I", opcode, 0);
     }
 
     @Override
@@ -0,0 +1,28 @@
+package mipssim.swain91.git;
+import java.util.List;
+
+/**
+ * A provider of instructions beyond the core set, found with
+ * {@link java.util.ServiceLoader}. A provider lists its class in
+ * <code>META-INF/services/mipssim.swain91.git.InstructionExtension</code> and
+ * has a public no-argument constructor.
+ *
+ * <p>
+ * The instructions of every provider are loaded once, when the simulator first
+ * decodes an instruction, and each gets its own operation ID and entry in the
+ * handler table of {@link Computer}. An extension therefore costs nothing
+ * when its instructions do not run, and one call through the table when they
+ * do. An instruction whose opcode and function code are already taken is an
+ * error.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ * @see ExtensionInstruction
+ */
+public interface InstructionExtension {
+
+    /**
+     * @return	the instructions this extension adds
+     */
+    List<ExtensionInstruction> instructions();
+}
@@ -1,16 +1,51 @@
 package mipssim.swain91.git;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Delegates the object creation of {@link RegisterInstruction}, {@link ImmediateInstruction},
  * and {@link JumpInstruction} based on the given {@link InstructionString} object data.
  * Returns a new MIPS instruction based on the data.
  * 
+ * <p>
+ * Instructions are immutable, so identical instruction words share one instance.
+ * Created instructions are interned in a bounded, direct-mapped cache keyed by the
+ * raw word; a word that maps to an occupied entry replaces it. The cache may be used
+ * from many threads at once. Its capacity is read from the
+ * <code>mipssim.instructionCache</code> system property and defaults to 4096 entries.
+ * 
  * @author Samuel Servane
  * @version 1.3
  */
 public class InstructionFactory {
 
-    private InstructionFactory() {}
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<Instruction> cache;
+    private final int shift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private InstructionFactory() {
+        this(Integer.getInteger("mipssim.instructionCache", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Creates a factory whose cache holds at most <code>capacity</code> instructions,
+     * rounded up to a power of two and limited to 2<sup>30</sup>, the largest
+     * power of two an array can hold.
+     * 
+     * @param capacity	the maximum number of cached instructions
+     * @throws IllegalArgumentException	if the capacity is not positive
+     */
+    InstructionFactory(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Invalid instruction cache capacity " + capacity);
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, Math.min(capacity, MAX_CAPACITY) - 1));
+        this.cache = new AtomicReferenceArray<>(1 << bits);
+        this.shift = 32 - bits;
+    }
 
     private static class InstructionFactoryHelper {
         private static final InstructionFactory INSTANCE = new InstructionFactory();
@@ -21,15 +56,79 @@ public class InstructionFactory {
     }
 
     public Instruction createInstruction(InstructionString is) {
-        String type = is.getType();
+        int index = index(is.getWord());
+        Instruction cached = cache.get(index);
+        if (cached != null && cached.getInstructionString().getWord() == is.getWord()) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
 
-        switch(type) {
+        Instruction instruction;
+        switch(is.getType()) {
             case "R":
-                return new RegisterInstructionFactory(is).createInstruction();
+                instruction = new RegisterInstructionFactory(is).createInstruction();
+                break;
             case "J":
-                return new JumpInstructionFactory(is).createInstruction();
+                instruction = new JumpInstructionFactory(is).createInstruction();
+                break;
             default:
-                return new ImmediateInstructionFactory(is).createInstruction();
+                instruction = new ImmediateInstructionFactory(is).createInstruction();
+                break;
+        }
+        cache.set(index, instruction);
+        return instruction;
+    }
+
+    /**
+     * Returns the instruction for a packed word, without building an
+     * {@link InstructionString} when the word is already cached.
+     * 
+     * @param word	the instruction as a packed <code>int</code>
+     * @return		the shared instruction for the word
+     */
+    public Instruction createInstruction(int word) {
+        Instruction cached = cache.get(index(word));
+        if (cached != null && cached.getInstructionString().getWord() == word) {
+            hits.increment();
+            return cached;
+        }
+        return createInstruction(new InstructionString(word));
+    }
+
+    private int index(int word) {
+        return (word * 0x9e3779b9) >>> shift;
+    }
+
+    public int getCacheCapacity() {
+        return cache.length();
+    }
+
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return	the fraction of requests served from the cache, or 0 before any request
+     */
+    public double getCacheHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Empties the cache and resets its statistics.
+     */
+    public void clearCache() {
+        for (int i = 0; i < cache.length(); i++) {
+            cache.set(i, null);
         }
+        hits.reset();
+        misses.reset();
     }
 }
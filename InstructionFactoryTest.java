@@ -1,7 +1,14 @@
 package mipssim.swain91.git;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -41,4 +48,83 @@ public class InstructionFactoryTest {
 		
 		assertTrue(testFactory.createInstruction(testString) instanceof ImmediateInstruction);
 	}
+	
+	@Test
+	void shouldShareIdenticalWords() {
+		InstructionFactory testFactory = new InstructionFactory(16);
+		Instruction first = testFactory.createInstruction(new InstructionString("00100000000000000000000000001010"));
+		Instruction second = testFactory.createInstruction(new InstructionString("00100000000000000000000000001010"));
+		
+		assertSame(first, second);
+		assertSame(first, testFactory.createInstruction(0x2000000a));
+		assertEquals(2, testFactory.getCacheHits());
+		assertEquals(1, testFactory.getCacheMisses());
+		assertEquals(2.0 / 3.0, testFactory.getCacheHitRate(), 1e-9);
+	}
+	
+	@Test
+	void shouldNotShareDifferentWords() {
+		InstructionFactory testFactory = new InstructionFactory(16);
+		Instruction first = testFactory.createInstruction(0x2000000a);
+		Instruction second = testFactory.createInstruction(0x2000000b);
+		
+		assertNotSame(first, second);
+		assertEquals(0x2000000b, second.getInstructionString().getWord());
+	}
+	
+	@Test
+	void shouldBoundCache() {
+		InstructionFactory testFactory = new InstructionFactory(100);
+		for (int i = 0; i < 10000; i++) {
+			testFactory.createInstruction(0x20000000 | i);
+		}
+		
+		assertEquals(128, testFactory.getCacheCapacity());
+		assertEquals(10000, testFactory.getCacheMisses());
+	}
+	
+	@Test
+	void shouldRejectInvalidCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> new InstructionFactory(0));
+		assertThrows(IllegalArgumentException.class, () -> new InstructionFactory(-1));
+	}
+	
+	@Test
+	void shouldClearCache() {
+		InstructionFactory testFactory = new InstructionFactory(16);
+		Instruction first = testFactory.createInstruction(0x2000000a);
+		testFactory.clearCache();
+		
+		assertNotSame(first, testFactory.createInstruction(0x2000000a));
+		assertEquals(0, testFactory.getCacheHits());
+		assertEquals(1, testFactory.getCacheMisses());
+	}
+	
+	@Test
+	void shouldCreateFromManyThreads() throws InterruptedException {
+		InstructionFactory testFactory = new InstructionFactory(64);
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 100000; i++) {
+					int word = 0x20000000 | (i % 200);
+					if (testFactory.createInstruction(word).getInstructionString().getWord() != word) {
+						synchronized (errors) {
+							errors.add(new AssertionError("wrong instruction for " + word));
+						}
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertTrue(errors.isEmpty());
+		assertEquals(400000, testFactory.getCacheHits() + testFactory.getCacheMisses());
+	}
 }
@@ -0,0 +1,269 @@
+package mipssim.swain91.git;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A pass over the loaded program of a {@link Computer} that fuses common
+ * adjacent instructions into superinstructions, so the run loop dispatches
+ * once for the whole sequence instead of once per instruction.
+ *
+ * <p>
+ * The pass counts every adjacent pair and triple of operations inside a basic
+ * block, where only the last instruction of a sequence may be a branch or
+ * jump. Sequences with a fused handler, such as the <code>addi</code> and
+ * <code>bne</code> of a loop counter, are fused at every slot they start from
+ * if they occur at least {@link #getMinimum()} times. Only the first slot of a
+ * sequence runs the fused handler; the other slots keep their own, so a branch
+ * into the middle of a sequence executes exactly what it would without fusion.
+ * Near the end of a run's budget the computer goes back to one instruction per
+ * dispatch, so a fused sequence never runs past the budget.
+ *
+ * <p>
+ * The computer counts its dispatches while it runs, so
+ * {@link #getSavedDispatches()} reports how many dispatches fusion saved. Like
+ * a {@link BlockCompiler}, the pass is redone when the computer's program
+ * changes, and a fuser should be attached to one computer at a time, see
+ * {@link Computer#setFuser(InstructionFuser)}.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class InstructionFuser {
+
+    /**
+     * A sequence of operations and the handler that runs it in one dispatch.
+     * A handler ending in a branch first moves the instruction pointer past the
+     * sequence, so the branch only has to set it when taken; nothing before the
+     * branch can fail. A handler that accesses memory moves it one instruction
+     * at a time, so a failing access leaves it where the interpreter would.
+     */
+    private static final class Superinstruction {
+
+        final String name;
+        final int[] operations;
+        final Operation handler;
+
+        Superinstruction(Operation handler, int... operations) {
+            this.operations = operations;
+            this.handler = handler;
+            StringBuilder sb = new StringBuilder();
+            for (int operation : operations) {
+                if (sb.length() > 0)
+                    sb.append('+');
+                sb.append(InstructionSet.name(operation));
+            }
+            this.name = sb.toString();
+        }
+    }
+
+    /**
+     * The fused handlers, triples first so that they are preferred over the
+     * pairs they start with.
+     */
+    private static final Superinstruction[] SUPERINSTRUCTIONS = {
+            new Superinstruction(new Operation() {
+                @Override
+                void execute(Computer computer, int slot) {
+                    int[] rs = computer.getRs(), rt = computer.getRt(), rd = computer.getRd(), imm = computer.getImm();
+                    computer.lw(rs[slot], rt[slot], imm[slot]);
+                    computer.advanceFused(slot + 1);
+                    computer.add(rs[slot + 1], rt[slot + 1], rd[slot + 1]);
+                    computer.advanceFused(slot + 2);
+                    computer.sw(rs[slot + 2], rt[slot + 2], imm[slot + 2]);
+                }
+            }, Predecoder.LW, Predecoder.ADD, Predecoder.SW),
+            new Superinstruction(new Operation() {
+                @Override
+                void execute(Computer computer, int slot) {
+                    computer.retireFused(slot, 2);
+                    int[] rs = computer.getRs(), rt = computer.getRt(), imm = computer.getImm();
+                    computer.addi(rs[slot], rt[slot], imm[slot]);
+                    computer.bne(rs[slot + 1], rt[slot + 1], imm[slot + 1]);
+                }
+            }, Predecoder.ADDI, Predecoder.BNE),
+            new Superinstruction(new Operation() {
+                @Override
+                void execute(Computer computer, int slot) {
+                    computer.retireFused(slot, 2);
+                    int[] rs = computer.getRs(), rt = computer.getRt(), imm = computer.getImm();
+                    computer.addi(rs[slot], rt[slot], imm[slot]);
+                    computer.beq(rs[slot + 1], rt[slot + 1], imm[slot + 1]);
+                }
+            }, Predecoder.ADDI, Predecoder.BEQ),
+            new Superinstruction(new Operation() {
+                @Override
+                void execute(Computer computer, int slot) {
+                    computer.retireFused(slot, 2);
+                    int[] rs = computer.getRs(), rt = computer.getRt(), imm = computer.getImm();
+                    computer.addiu(rs[slot], rt[slot], imm[slot]);
+                    computer.bne(rs[slot + 1], rt[slot + 1], imm[slot + 1]);
+                }
+            }, Predecoder.ADDIU, Predecoder.BNE),
+            new Superinstruction(new Operation() {
+                @Override
+                void execute(Computer computer, int slot) {
+                    int[] rs = computer.getRs(), rt = computer.getRt(), rd = computer.getRd(), imm = computer.getImm();
+                    computer.lw(rs[slot], rt[slot], imm[slot]);
+                    computer.advanceFused(slot + 1);
+                    computer.add(rs[slot + 1], rt[slot + 1], rd[slot + 1]);
+                }
+            }, Predecoder.LW, Predecoder.ADD),
+            new Superinstruction(new Operation() {
+                @Override
+                void execute(Computer computer, int slot) {
+                    int[] rs = computer.getRs(), rt = computer.getRt(), rd = computer.getRd(), imm = computer.getImm();
+                    computer.add(rs[slot], rt[slot], rd[slot]);
+                    computer.advanceFused(slot + 1);
+                    computer.sw(rs[slot + 1], rt[slot + 1], imm[slot + 1]);
+                }
+            }, Predecoder.ADD, Predecoder.SW)
+    };
+
+    /**
+     * The number of instructions in the longest superinstruction.
+     */
+    static final int MAX_LENGTH = 3;
+
+    private final int minimum;
+    private int[] program;
+    private int programLength;
+    private Operation[] handlers;
+    private Map<String, Integer> sequenceCounts;
+    private Map<String, Integer> fusedCounts;
+    private long dispatches = 0;
+    private long savedDispatches = 0;
+
+    /**
+     * Creates a fuser that fuses every sequence it has a handler for.
+     */
+    public InstructionFuser() {
+        this(1);
+    }
+
+    /**
+     * @param minimum	the fewest times a sequence must occur in the program to be fused, at least 1
+     */
+    public InstructionFuser(int minimum) {
+        if (minimum < 1)
+            throw new IllegalArgumentException("Invalid minimum occurrences " + minimum);
+        this.minimum = minimum;
+    }
+
+    public int getMinimum() {
+        return this.minimum;
+    }
+
+    /**
+     * Returns the dispatch table of the computer's current program, redoing
+     * the pass if the program changed. Each slot holds the handler the run
+     * loop calls there.
+     *
+     * @param computer	the computer about to run
+     * @return			the handler of each slot
+     */
+    Operation[] handlers(Computer computer) {
+        if (computer.getWords() != program || computer.getInstructionCount() != programLength)
+            fuse(computer);
+        return handlers;
+    }
+
+    /**
+     * Adds the instructions and dispatches of a run to the totals.
+     */
+    void addRun(long instructions, long runDispatches) {
+        dispatches += runDispatches;
+        savedDispatches += instructions - runDispatches;
+    }
+
+    /**
+     * @return	the number of dispatches the fused computer made
+     */
+    public long getDispatches() {
+        return this.dispatches;
+    }
+
+    /**
+     * @return	the number of dispatches saved, the instructions retired less the dispatches made
+     */
+    public long getSavedDispatches() {
+        return this.savedDispatches;
+    }
+
+    /**
+     * @return	the number of times each adjacent pair and triple of operations
+     * 			occurs within the basic blocks of the program, by name such as
+     * 			<code>addi+bne</code>
+     */
+    public Map<String, Integer> getSequenceCounts() {
+        return sequenceCounts == null ? Map.of() : sequenceCounts;
+    }
+
+    /**
+     * @return	the number of slots that start each fused sequence, by name
+     */
+    public Map<String, Integer> getFusedCounts() {
+        return fusedCounts == null ? Map.of() : fusedCounts;
+    }
+
+    /**
+     * Counts the sequences of the program and builds its dispatch table.
+     */
+    private void fuse(Computer computer) {
+        computer.decodeAll();
+        int ic = computer.getInstructionCount();
+        int[] op = computer.getOp();
+        program = computer.getWords();
+        programLength = ic;
+
+        Map<String, Integer> sequences = new TreeMap<>();
+        for (int slot = 0; slot < ic; slot++) {
+            for (int length = 2; length <= 3 && slot + length <= ic; length++) {
+                if (!inBlock(op, slot, length))
+                    break;
+                StringBuilder sb = new StringBuilder(InstructionSet.name(op[slot]));
+                for (int i = 1; i < length; i++) {
+                    sb.append('+').append(InstructionSet.name(op[slot + i]));
+                }
+                sequences.merge(sb.toString(), 1, Integer::sum);
+            }
+        }
+
+        Operation[] verified = computer.handlers();
+        handlers = new Operation[ic];
+        Map<String, Integer> fused = new TreeMap<>();
+        for (int slot = 0; slot < ic; slot++) {
+            handlers[slot] = verified[slot];
+            for (Superinstruction superinstruction : SUPERINSTRUCTIONS) {
+                if (matches(op, ic, slot, superinstruction.operations)
+                        && sequences.getOrDefault(superinstruction.name, 0) >= minimum) {
+                    handlers[slot] = superinstruction.handler;
+                    fused.merge(superinstruction.name, 1, Integer::sum);
+                    break;
+                }
+            }
+        }
+        sequenceCounts = sequences;
+        fusedCounts = fused;
+    }
+
+    /**
+     * @return	<code>true</code> if no instruction but the last of the sequence
+     * 			ends a basic block and none is an unknown operation
+     */
+    private static boolean inBlock(int[] op, int slot, int length) {
+        for (int i = 0; i < length; i++) {
+            if (op[slot + i] == Predecoder.NONE)
+                return false;
+            if (i < length - 1 && BlockCompiler.ENDS_BLOCK[op[slot + i]])
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(int[] op, int ic, int slot, int[] operations) {
+        if (slot + operations.length > ic)
+            return false;
+        return Arrays.equals(op, slot, slot + operations.length, operations, 0, operations.length);
+    }
+}
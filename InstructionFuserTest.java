@@ -0,0 +1,226 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link InstructionFuser} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class InstructionFuserTest {
+
+	private static final String[] LOOP = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"00010100001000100000000000000000"  // bne  $1, $2, 0
+	};
+
+	private static final String[] MEMORY = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"01011100001000110000000000000000", // lw   $3, 0($1)
+			"00000000011000010001100000010100", // add  $3, $3, $1
+			"10101100001000110000000000000000", // sw   $3, 0($1)
+			"00010100001000100000000000000000"  // bne  $1, $2, 0
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting InstructionFuser.java tests...");
+	}
+
+	@Test
+	void shouldFuseLoopCounter() {
+		Computer computer = load(LOOP, 1000);
+		InstructionFuser test = new InstructionFuser();
+		computer.setFuser(test);
+		computer.run();
+
+		assertEquals(1000, computer.getRegister(1));
+		assertEquals(2000, computer.getRetired());
+		assertEquals(1000, test.getDispatches());
+		assertEquals(1000, test.getSavedDispatches());
+		assertEquals(Map.of("addi+bne", 1), test.getSequenceCounts());
+		assertEquals(Map.of("addi+bne", 1), test.getFusedCounts());
+	}
+
+	@Test
+	void shouldMatchInterpreterOnAluLoop() {
+		InstructionFuser test = assertSameRun(TestPrograms.aluProgram(), 1000);
+
+		assertEquals(Map.of("addiu+bne", 1), test.getFusedCounts());
+		assertEquals(1000, test.getSavedDispatches());
+	}
+
+	@Test
+	void shouldMatchInterpreterOnMemoryLoop() {
+		InstructionFuser test = assertSameRun(MEMORY, 100);
+
+		assertEquals(Map.of("add+sw", 1, "lw+add+sw", 1), test.getFusedCounts());
+		assertEquals(200, test.getSavedDispatches());
+		assertEquals(Integer.valueOf(1), test.getSequenceCounts().get("lw+add"));
+		assertEquals(Integer.valueOf(1), test.getSequenceCounts().get("addi+lw+add"));
+	}
+
+	@Test
+	void shouldMatchInterpreterOnBranchLoop() {
+		assertSameRun(TestPrograms.branchProgram(), 1000);
+	}
+
+	@Test
+	void shouldBranchIntoFusedSequence() {
+		for (String target : new String[] { "00100", "00101" }) {
+			assertSameRun(new String[] {
+					"00100000001000010000000000000001", // addi $1, $1, 1
+					"00010000001000100000000000000111", // beq  $1, $2, 7
+					"000010000000000000000000000" + target, // jump 4 or 5
+					"01011100000000110000000000000000", // lw   $3, 0($0)
+					"00000000100000010010000000010100", // add  $4, $4, $1
+					"10101100000001000000000000000001", // sw   $4, 1($0)
+					"00001000000000000000000000000000", // jump 0
+					"00100001010010100000000000000001"  // addi $10, $10, 1
+			}, 100);
+		}
+	}
+
+	@Test
+	void shouldStopAtBudget() {
+		Computer expected = load(MEMORY, 1000);
+		Computer actual = load(MEMORY, 1000);
+		actual.setFuser(new InstructionFuser());
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(expected.run(337), actual.run(337));
+			assertSameState(expected, actual);
+		}
+	}
+
+	@Test
+	void shouldFuseOnlyFrequentSequences() {
+		Computer computer = load(LOOP, 1000);
+		InstructionFuser test = new InstructionFuser(2);
+		computer.setFuser(test);
+		computer.run();
+
+		assertEquals(1000, computer.getRegister(1));
+		assertEquals(0, test.getSavedDispatches());
+		assertEquals(Map.of(), test.getFusedCounts());
+		assertThrows(IllegalArgumentException.class, () -> new InstructionFuser(0));
+	}
+
+	@Test
+	void shouldRefuseAfterLoad() {
+		Computer computer = load(LOOP, 10);
+		InstructionFuser test = new InstructionFuser();
+		computer.setFuser(test);
+		computer.run();
+		computer.insertWord(InstructionString.parseWord("00100000001000010000000000000001")); // addi $1, $1, 1
+		computer.insertWord(InstructionString.parseWord("00010100001000100000000000000010")); // bne  $1, $2, 2
+		computer.setRegister(2, 20);
+		computer.run();
+
+		assertEquals(20, computer.getRegister(1));
+		assertEquals(Map.of("addi+bne", 2), test.getFusedCounts());
+		assertEquals(20, test.getSavedDispatches());
+	}
+
+	@Test
+	void shouldStopOnFailingAccessLikeInterpreter() {
+		String[][] programs = {
+				{ "lw+add+sw", "01011100000000110000000001100100", "00000000100000010010000000010100", "10101100000001000000000000000001" },
+				{ "lw+add+sw", "01011100000000110000000000000000", "00000000100000010010000000010100", "10101100000001000000000001100100" },
+				{ "add+sw", "00000000100000010010000000010100", "10101100000001000000000001100100" },
+				{ "lw+add", "01011100000000110000000001100100", "00000000100000010010000000010100", "00100000000000010000000000000101" }
+		};
+		for (String[] program : programs) {
+			Computer expected = new Computer(unchecked(16));
+			Computer actual = new Computer(unchecked(16));
+			expected.insertWord(InstructionString.parseWord("00100000000000010000000000000101")); // addi $1, $0, 5
+			actual.insertWord(InstructionString.parseWord("00100000000000010000000000000101"));
+			for (int i = 1; i < program.length; i++) {
+				expected.insertWord(InstructionString.parseWord(program[i]));
+				actual.insertWord(InstructionString.parseWord(program[i]));
+			}
+			InstructionFuser fuser = new InstructionFuser();
+			actual.setFuser(fuser);
+
+			assertThrows(ArrayIndexOutOfBoundsException.class, expected::run);
+			assertThrows(ArrayIndexOutOfBoundsException.class, actual::run);
+			assertTrue(fuser.getFusedCounts().containsKey(program[0]), program[0]);
+			assertSameState(expected, actual);
+			assertEquals(expected.getIr().getName(), actual.getIr().getName());
+		}
+	}
+
+	/**
+	 * Runs a program with and without fusion, and checks both end in the
+	 * same state.
+	 */
+	private static InstructionFuser assertSameRun(String[] program, int iterations) {
+		Computer expected = load(program, iterations);
+		Computer actual = load(program, iterations);
+		InstructionFuser fuser = new InstructionFuser();
+		actual.setFuser(fuser);
+		expected.run();
+		actual.run();
+
+		assertSameState(expected, actual);
+		assertEquals(actual.getRetired(), fuser.getDispatches() + fuser.getSavedDispatches());
+		return fuser;
+	}
+
+	private static void assertSameState(Computer expected, Computer actual) {
+		assertEquals(expected.getPc(), actual.getPc());
+		assertEquals(expected.getRetired(), actual.getRetired());
+		for (int i = 0; i < 32; i++) {
+			assertEquals(expected.getRegister(i), actual.getRegister(i), "$" + i);
+		}
+		for (int i = 0; i < expected.getMemory().size(); i++) {
+			assertEquals(expected.getMemory().load(i), actual.getMemory().load(i), "mem[" + i + "]");
+		}
+	}
+
+	/**
+	 * A memory that claims every address, so an access outside its words
+	 * throws instead of being skipped.
+	 */
+	private static DataMemory unchecked(int size) {
+		int[] words = new int[size];
+		return new DataMemory() {
+			@Override
+			public int size() {
+				return size;
+			}
+			
+			@Override
+			public boolean contains(int address, int width) {
+				return true;
+			}
+			
+			@Override
+			public int load(int address) {
+				return words[address];
+			}
+			
+			@Override
+			public void store(int address, int value) {
+				words[address] = value;
+			}
+		};
+	}
+
+	private static Computer load(String[] program, int iterations) {
+		Computer computer = new Computer();
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		computer.setRegister(2, iterations);
+		return computer;
+	}
+}
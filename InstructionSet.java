@@ -0,0 +1,108 @@
+package mipssim.swain91.git;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The registry of every instruction the simulator knows: the core set, with
+ * the operation IDs of {@link Predecoder}, followed by the instructions of
+ * every {@link InstructionExtension} found with {@link ServiceLoader}, which
+ * take the IDs from {@link Predecoder#FIRST_EXTENSION} on. The extensions are
+ * loaded once, and the tables built from them never change, so every lookup is
+ * an array index.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+final class InstructionSet {
+
+    /**
+     * The assembly names of the core operations, indexed by operation ID.
+     */
+    private static final String[] CORE_NAMES = {
+            "undecoded", "jr", "add", "addu", "and", "or", "jump", "beq", "bne",
+            "addi", "addiu", "andi", "ori", "lw", "sw", "none"
+    };
+
+    private static final ExtensionInstruction[] EXTENSIONS = load();
+
+    private InstructionSet() {}
+
+    private static ExtensionInstruction[] load() {
+        List<ExtensionInstruction> instructions = new ArrayList<>();
+        for (InstructionExtension extension : ServiceLoader.load(InstructionExtension.class,
+                InstructionSet.class.getClassLoader())) {
+            instructions.addAll(extension.instructions());
+        }
+        return instructions.toArray(new ExtensionInstruction[0]);
+    }
+
+    /**
+     * @return	the number of instructions added by extensions
+     */
+    static int extensionCount() {
+        return EXTENSIONS.length;
+    }
+
+    /**
+     * @param operation	an operation ID
+     * @return			the extension instruction with that ID, or <code>null</code>
+     * 					for a core operation
+     */
+    static ExtensionInstruction extension(int operation) {
+        return operation >= Predecoder.FIRST_EXTENSION ? EXTENSIONS[operation - Predecoder.FIRST_EXTENSION] : null;
+    }
+
+    /**
+     * @param operation	an operation ID
+     * @return			the assembly name of the operation
+     */
+    static String name(int operation) {
+        return operation < Predecoder.FIRST_EXTENSION ? CORE_NAMES[operation] : extension(operation).getName();
+    }
+
+    /**
+     * Names the instruction of an opcode and function code, for the
+     * instruction classes.
+     *
+     * @param type		the type of the instruction class, as {@link #type(int)}
+     * @param opcode	the 6 bit opcode
+     * @param function	the 6 bit function code
+     * @return			the assembly name, or <code>null</code> if no instruction
+     * 					of that type has that encoding
+     */
+    static String name(String type, int opcode, int function) {
+        int operation = Predecoder.operation(opcode << 26 | function);
+        return operation == Predecoder.NONE || !type.equals(type(opcode)) ? null : name(operation);
+    }
+
+    /**
+     * @param opcode	the 6 bit opcode
+     * @return			<code>"R"</code>, <code>"J"</code> or <code>"I"</code>, as
+     * 					{@link InstructionString#getType()}
+     */
+    static String type(int opcode) {
+        if (opcode == 0)
+            return "R";
+        else if (opcode == 2)
+            return "J";
+        ExtensionInstruction extension = extension(Predecoder.operation(opcode << 26));
+        return extension != null ? extension.getType() : "I";
+    }
+
+    /**
+     * @param operation	an operation ID
+     * @return			<code>true</code> if the operation may change the instruction pointer
+     */
+    static boolean isBranch(int operation) {
+        switch (operation) {
+            case Predecoder.JR:
+            case Predecoder.JUMP:
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                return true;
+            default:
+                return operation >= Predecoder.FIRST_EXTENSION && extension(operation).isBranch();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link InstructionSet} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class InstructionSetTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting InstructionSet.java tests...");
+	}
+
+	@Test
+	void shouldLoadArithmeticExtension() {
+		assertEquals(14, InstructionSet.extensionCount());
+		assertEquals(Predecoder.FIRST_EXTENSION + 14, Predecoder.OPERATION_COUNT);
+
+		int test = Predecoder.operation(InstructionString.parseWord("00000000001000100011000000101010")); // slt $6, $1, $2
+		assertTrue(test >= Predecoder.FIRST_EXTENSION);
+		assertEquals("slt", InstructionSet.name(test));
+		assertSame(ArithmeticExtension.class, InstructionSet.extension(test).getClass().getEnclosingClass());
+		assertNull(InstructionSet.extension(Predecoder.ADD));
+	}
+
+	@Test
+	void shouldNameInstructionsOfTheirType() {
+		assertEquals("add", InstructionSet.name("R", 0, 20));
+		assertEquals("sub", InstructionSet.name("R", 0, 22));
+		assertEquals("beq", InstructionSet.name("I", 4, 0));
+		assertEquals("jump", InstructionSet.name("J", 2, 0));
+		assertNull(InstructionSet.name("I", 0, 0));
+		assertNull(InstructionSet.name("J", 4, 0));
+		assertNull(InstructionSet.name("R", 0, 63));
+		assertEquals("sll", new RegisterInstruction(new InstructionString("00000000000000100001100100000000")).getName());
+	}
+
+	@Test
+	void shouldDecodeShiftAmount() {
+		int test = InstructionString.parseWord("00000000000000100001100100000000"); // sll $3, $2, 4
+		int operation = Predecoder.operation(test);
+
+		assertEquals(4, Predecoder.immediate(operation, test));
+		assertEquals(2, Predecoder.target(test));
+		assertEquals(3, Predecoder.destination(test));
+	}
+
+	@Test
+	void shouldMarkBranches() {
+		assertTrue(InstructionSet.isBranch(Predecoder.BNE));
+		assertTrue(InstructionSet.isBranch(Predecoder.JR));
+		assertFalse(InstructionSet.isBranch(Predecoder.ADD));
+		assertFalse(InstructionSet.isBranch(Predecoder.FIRST_EXTENSION));
+	}
+
+	@Test
+	void shouldRejectInvalidEncoding() {
+		assertThrows(IllegalArgumentException.class, () -> new ExtensionInstruction("bad", "R", 3, 0) {
+			@Override
+			public void execute(Computer computer, int source, int target, int destination, int immediate) {}
+		});
+		assertThrows(IllegalArgumentException.class, () -> new ExtensionInstruction("bad", "I", 3, 5) {
+			@Override
+			public void execute(Computer computer, int source, int target, int destination, int immediate) {}
+		});
+	}
+}
@@ -2,8 +2,8 @@ package mipssim.swain91.git;
 import java.util.Arrays;
 
 /**
- * The container class for binary string data. Parses data in the following ways:
- * 
+ * The container class for binary instruction data. Parses data in the following ways:
+ *
  * <ul>
  * <li> Extracts the op code, function code, and register data for {@link RegisterInstruction}.
  * <li> Extracts the opcode, register data, and immediate value for {@link ImmediateInstruction}.
@@ -11,36 +11,92 @@ import java.util.Arrays;
  * <li> Creates unsigned and signed data values.
  * <li> Peforms sign extension when required.
  * </ul>
- * 
+ *
+ * <p>
+ * The instruction is held as a packed 32-bit word, parsed once from its binary text.
+ * Every field is extracted with shifts and masks; the binary <code>String</code> form
+ * is only a view that is created on demand by {@link #getBits()}. Instances are
+ * immutable apart from that cached view, so they can be shared between threads.
+ *
  * @author Samuel Servane
  * @version 1.3
  */
 public class InstructionString {
 
+    private static final int WORD_LENGTH = 32;
+
+    private final int word;
     private String bits;
-    private String type;
+    private final String type;
 
     public InstructionString(String newBits) {
+        this(parseWord(newBits));
         this.bits = newBits;
-        determineType(parseOpcode());
     }
 
+    /**
+     * Creates an instruction string directly from a packed 32-bit word, without
+     * building its binary text.
+     *
+     * @param newWord	the instruction as a packed <code>int</code>
+     */
+    public InstructionString(int newWord) {
+        this.word = newWord;
+        this.type = determineType(parseOpcodeValue());
+    }
+
+    /**
+     * Parses a 32 character binary string into a packed 32-bit word.
+     *
+     * @param bits	the instruction as binary text
+     * @return		the instruction as a packed <code>int</code>
+     */
+    public static int parseWord(String bits) {
+        if (bits.length() != WORD_LENGTH)
+            throw new NumberFormatException("Instruction must be " + WORD_LENGTH + " bits: \"" + bits + "\"");
+        return Integer.parseUnsignedInt(bits, 2);
+    }
+
+    /**
+     * Formats a packed 32-bit word as 32 character binary text, keeping leading zeros.
+     *
+     * @param word	the instruction as a packed <code>int</code>
+     * @return		the instruction as binary text
+     */
+    public static String formatWord(int word) {
+        char[] text = new char[WORD_LENGTH];
+        for (int i = 0; i < WORD_LENGTH; i++) {
+            text[i] = (char) ('0' + ((word >>> (WORD_LENGTH - 1 - i)) & 1));
+        }
+        return new String(text);
+    }
+
+    public int getWord() { return this.word; }
+
     public String parseOpcode() {
-        return this.bits.substring(0, 6);
+        return getBits().substring(0, 6);
+    }
+
+    public int parseOpcodeValue() {
+        return this.word >>> 26;
     }
 
-    public String parseFunction() { return this.bits.substring(26, 32); }
+    public String parseFunction() { return getBits().substring(26, 32); }
+
+    public int parseFunctionValue() {
+        return this.word & 0x3f;
+    }
 
     public int parseJumpAddress() {
-        return (int) twosComplement(slice(this.bits.substring(6, 32)));
+        return (this.word << 6) >> 6;
     }
 
     public int parseImmediateSigned() {
-        return twosComplement(slice(this.bits.substring(16, 32)));
+        return (short) this.word;
     }
 
     public int parseImmediateUnsigned() {
-        return (int) Long.parseUnsignedLong(this.bits.substring(16, 32), 2);
+        return this.word & 0xffff;
     }
 
     public int twosComplement(String bits) {
@@ -52,40 +108,33 @@ public class InstructionString {
     }
 
     public int parseSource() {
-        return (int) Long.parseLong(bits.substring(6, 11), 2);
+        return (this.word >>> 21) & 0x1f;
     }
 
     public int parseTarget() {
-        return (int) Long.parseLong(bits.substring(11, 16), 2);
+        return (this.word >>> 16) & 0x1f;
     }
 
     public int parseDestination() {
-        return (int) Long.parseLong(bits.substring(16, 21), 2);
+        return (this.word >>> 11) & 0x1f;
     }
 
     public int parseShift() {
-        return (int) Long.parseLong(bits.substring(21, 26), 2);
+        return (this.word >>> 6) & 0x1f;
     }
 
-    public String getBits() { return this.bits; }
+    public String getBits() {
+        if (this.bits == null)
+            this.bits = formatWord(this.word);
+        return this.bits;
+    }
 
     public String getType() {
         return this.type;
     }
 
-    private void determineType(String opcode) {
-        int op = (int) Long.parseLong(opcode, 2);
-
-        switch (op) {
-            case 0:
-                this.type = "R";
-                break;
-            case 2:
-                this.type = "J";
-                break;
-            default:
-                this.type = "I";
-        }
+    private static String determineType(int op) {
+        return InstructionSet.type(op);
     }
 
     public String signExtend(String bits) {
@@ -95,15 +144,4 @@ public class InstructionString {
 
         return new String(ext) + bits;
     }
-
-    private String slice(String bits) {
-        int n = 1;
-        int index = 1;
-        while(bits.charAt(index) != '1' && index < bits.length() - 1) {
-            index++;
-            n++;
-        }
-
-        return bits.charAt(0) + bits.substring(n, bits.length());
-    }
 }
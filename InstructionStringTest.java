@@ -1,6 +1,7 @@
 package mipssim.swain91.git;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeAll;
@@ -150,4 +151,46 @@ public class InstructionStringTest {
 		
 		assertEquals(31, test.parseShift());
 	}
+	
+	@Test
+	void shouldParseWord() {
+		InstructionString test = new InstructionString("10101100001000101111111111111110");
+		
+		assertEquals(0xac22fffe, test.getWord());
+	}
+	
+	@Test
+	void shouldCreateBitsFromWord() {
+		InstructionString test = new InstructionString(0x2400000a);
+		
+		assertEquals("00100100000000000000000000001010", test.getBits());
+		assertEquals("001001", test.parseOpcode());
+		assertEquals("I", test.getType());
+	}
+	
+	@Test
+	void shouldParseFieldsFromWord() {
+		InstructionString test = new InstructionString(0b000000_11111_00001_00010_00011_011000);
+		
+		assertEquals(0, test.parseOpcodeValue());
+		assertEquals(31, test.parseSource());
+		assertEquals(1, test.parseTarget());
+		assertEquals(2, test.parseDestination());
+		assertEquals(3, test.parseShift());
+		assertEquals(24, test.parseFunctionValue());
+		assertEquals("R", test.getType());
+	}
+	
+	@Test
+	void shouldParseImmediateSignedMinimum() {
+		InstructionString test = new InstructionString("00100100000000001000000000000000");
+		
+		assertEquals(-32768, test.parseImmediateSigned());
+		assertEquals(32768, test.parseImmediateUnsigned());
+	}
+	
+	@Test
+	void shouldRejectWrongLength() {
+		assertThrows(NumberFormatException.class, () -> new InstructionString("0010"));
+	}
 }
@@ -9,18 +9,15 @@ package mipssim.swain91.git;
  */
 public class JumpInstruction implements Instruction {
 	
-    private InstructionString instructionString;
-    private String opcode;
+    private final InstructionString instructionString;
     private String name;
-    private int jumpAddress;
+    private final int jumpAddress;
 
     public JumpInstruction(InstructionString is) {
         this.instructionString = is;
-        this.opcode = is.parseOpcode();
         this.jumpAddress = is.parseJumpAddress();
 
-        int op = (int) Long.parseLong(this.opcode, 2);
-        determineName(op);
+        determineName(is.parseOpcodeValue());
     }
 
     @Override
@@ -30,7 +27,7 @@ public class JumpInstruction implements Instruction {
 
     @Override
     public String getOpcode() {
-        return this.opcode;
+        return this.instructionString.parseOpcode();
     }
 
     public String getName() { return this.name; }
@@ -41,13 +38,7 @@ public class JumpInstruction implements Instruction {
 
     @Override
     public void determineName(int opcode) {
-        switch (opcode) {
-            case 2:
-                this.name = "jump";
-                break;
-            default:
-                break;
-        }
+        this.name = InstructionSet.name("J", opcode, 0);
     }
 
     @Override
@@ -0,0 +1,422 @@
+package mipssim.swain91.git;
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Runs one program over many initial machine states at once. Each state is a
+ * lane, and registers and data memory are stored register-major, so that
+ * register <i>r</i> of every lane is one contiguous <code>int</code> array. The
+ * arithmetic and logic instructions then run across all lanes with the Vector
+ * API, several lanes per machine instruction.
+ *
+ * <p>
+ * Lanes start together and stay together until a <code>beq</code>,
+ * <code>bne</code> or <code>jr</code> sends them different ways. From then on
+ * each lane keeps its own instruction pointer and every step executes the lowest
+ * pending instruction slot, masked to the lanes that are waiting at it. Lanes
+ * that run ahead wait for the others, so they meet again where the paths join,
+ * and the sweep returns to executing every lane unmasked once all instruction
+ * pointers are equal again. Every lane retires exactly the instructions a
+ * {@link Computer} would for the same state.
+ *
+ * <p>
+ * Loads and stores address a different word in every lane and run lane by lane.
+ * The instructions of an {@link InstructionExtension} run on a {@link Computer}
+ * and cannot be swept, so a program that uses them is rejected, as is a
+ * {@link DataMemory#isByteAddressed() byte addressed} memory. The Vector API
+ * is an incubator module, so this class needs
+ * <code>--add-modules jdk.incubator.vector</code> to compile and run.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class LaneSweep {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int MAX_REGISTERS = 32;
+
+    /**
+     * The largest data memory, in words, that is copied into every lane.
+     */
+    static final int MAX_MEMORY = 1 << 16;
+
+    private final int lanes;
+    private final int width;
+    private final int ic;
+    private final int[] op;
+    private final int[] rs;
+    private final int[] rt;
+    private final int[] rd;
+    private final int[] imm;
+    private final int[][] gpr;
+    private final int[][] memory;
+    private final int[] pc;
+    private int common;
+    private long retired = 0;
+
+    /**
+     * Creates a sweep of the program loaded into a computer. Every lane starts
+     * with that computer's registers, data memory and instruction pointer, and
+     * can then be given its own values.
+     *
+     * @param program	a computer with the program and the shared initial state
+     * @param lanes		the number of machine states to run
+     * @throws IllegalArgumentException	if the program uses an extension instruction
+     * 									or its memory is byte addressed
+     */
+    public LaneSweep(Computer program, int lanes) {
+        if (lanes < 1)
+            throw new IllegalArgumentException("Lane count must be positive: " + lanes);
+        DataMemory data = program.getMemory();
+        if (data.isByteAddressed())
+            throw new IllegalArgumentException("Byte addressed memory cannot be swept");
+        if (data.size() > MAX_MEMORY)
+            throw new IllegalArgumentException("Data memory is too large to copy into every lane: " + data.size());
+
+        this.lanes = lanes;
+        this.width = (lanes + SPECIES.length() - 1) / SPECIES.length() * SPECIES.length();
+        program.decodeAll();
+        this.ic = program.getInstructionCount();
+        this.op = Arrays.copyOf(program.getOp(), ic);
+        this.rs = Arrays.copyOf(program.getRs(), ic);
+        this.rt = Arrays.copyOf(program.getRt(), ic);
+        this.rd = Arrays.copyOf(program.getRd(), ic);
+        this.imm = Arrays.copyOf(program.getImm(), ic);
+        for (int slot = 0; slot < ic; slot++) {
+            if (op[slot] >= Predecoder.FIRST_EXTENSION)
+                throw new IllegalArgumentException("Extension instruction " + InstructionSet.name(op[slot])
+                        + " at slot " + slot + " cannot be swept");
+        }
+
+        gpr = new int[MAX_REGISTERS][width];
+        for (int r = 0; r < MAX_REGISTERS; r++) {
+            Arrays.fill(gpr[r], program.getRegister(r));
+        }
+        memory = new int[data.size()][width];
+        for (int address = 0; address < memory.length; address++) {
+            Arrays.fill(memory[address], data.load(address));
+        }
+
+        // Padding lanes never match a slot, so masked steps skip them.
+        pc = new int[width];
+        Arrays.fill(pc, Integer.MAX_VALUE);
+        Arrays.fill(pc, 0, lanes, program.getPc());
+        common = program.getPc();
+    }
+
+    public int getLanes() {
+        return this.lanes;
+    }
+
+    /**
+     * @return	the number of instructions executed, summed over all lanes
+     */
+    public long getRetired() {
+        return this.retired;
+    }
+
+    public int getPc(int lane) {
+        check(lane);
+        return common >= 0 ? common : pc[lane];
+    }
+
+    public int getRegister(int lane, int register) {
+        check(lane);
+        return gpr[register][lane];
+    }
+
+    public void setRegister(int lane, int register, int value) {
+        check(lane);
+        gpr[register][lane] = value;
+    }
+
+    public int getMemory(int lane, int address) {
+        check(lane);
+        return memory[address][lane];
+    }
+
+    public void setMemory(int lane, int address, int value) {
+        check(lane);
+        memory[address][lane] = value;
+    }
+
+    /**
+     * Runs every lane until its instruction pointer moves past the last
+     * instruction.
+     */
+    public void run() {
+        while (true) {
+            if (common >= 0) {
+                if (common >= ic)
+                    return;
+                common = stepAll(common);
+            } else {
+                int slot = minimumPc();
+                if (slot >= ic) {
+                    common = converged();
+                    return;
+                }
+                stepWaiting(slot);
+                common = converged();
+            }
+        }
+    }
+
+    /**
+     * Executes a slot on every lane while all instruction pointers are equal.
+     *
+     * @param slot	the slot every lane is at
+     * @return		the slot every lane moves to, or -1 if the lanes diverged
+     */
+    private int stepAll(int slot) {
+        retired += lanes;
+        int next = slot + 1;
+        switch (op[slot]) {
+            case Predecoder.ADD:
+            case Predecoder.ADDU:
+                add(gpr[rs[slot]], gpr[rt[slot]], gpr[rd[slot]], -1);
+                return next;
+            case Predecoder.AND:
+                and(gpr[rs[slot]], gpr[rt[slot]], gpr[rd[slot]], -1);
+                return next;
+            case Predecoder.OR:
+                or(gpr[rs[slot]], gpr[rt[slot]], gpr[rd[slot]], -1);
+                return next;
+            case Predecoder.ADDI:
+            case Predecoder.ADDIU:
+                addi(gpr[rs[slot]], imm[slot], gpr[rt[slot]], -1);
+                return next;
+            case Predecoder.ANDI:
+                andi(gpr[rs[slot]], imm[slot], gpr[rt[slot]], -1);
+                return next;
+            case Predecoder.ORI:
+                ori(gpr[rs[slot]], imm[slot], gpr[rt[slot]], -1);
+                return next;
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                return branchAll(slot);
+            case Predecoder.JUMP:
+                return imm[slot] >= 0 && imm[slot] < ic ? imm[slot] : next;
+            case Predecoder.JR:
+            case Predecoder.LW:
+            case Predecoder.SW:
+                Arrays.fill(pc, 0, lanes, slot);
+                scalar(slot);
+                return converged();
+            default:
+                return next;
+        }
+    }
+
+    /**
+     * Executes a slot on the lanes waiting at it, after the lanes diverged.
+     *
+     * @param slot	the lowest instruction pointer of any lane
+     */
+    private void stepWaiting(int slot) {
+        int next = slot + 1;
+        switch (op[slot]) {
+            case Predecoder.ADD:
+            case Predecoder.ADDU:
+                add(gpr[rs[slot]], gpr[rt[slot]], gpr[rd[slot]], slot);
+                break;
+            case Predecoder.AND:
+                and(gpr[rs[slot]], gpr[rt[slot]], gpr[rd[slot]], slot);
+                break;
+            case Predecoder.OR:
+                or(gpr[rs[slot]], gpr[rt[slot]], gpr[rd[slot]], slot);
+                break;
+            case Predecoder.ADDI:
+            case Predecoder.ADDIU:
+                addi(gpr[rs[slot]], imm[slot], gpr[rt[slot]], slot);
+                break;
+            case Predecoder.ANDI:
+                andi(gpr[rs[slot]], imm[slot], gpr[rt[slot]], slot);
+                break;
+            case Predecoder.ORI:
+                ori(gpr[rs[slot]], imm[slot], gpr[rt[slot]], slot);
+                break;
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                branchWaiting(slot);
+                return;
+            case Predecoder.JUMP:
+                next = imm[slot] >= 0 && imm[slot] < ic ? imm[slot] : next;
+                break;
+            case Predecoder.JR:
+            case Predecoder.LW:
+            case Predecoder.SW:
+                scalar(slot);
+                return;
+            default:
+                break;
+        }
+        IntVector target = IntVector.broadcast(SPECIES, next);
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            IntVector p = IntVector.fromArray(SPECIES, pc, i);
+            VectorMask<Integer> m = p.eq(slot);
+            retired += m.trueCount();
+            target.intoArray(pc, i, m);
+        }
+    }
+
+    private void add(int[] a, int[] b, int[] d, int slot) {
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            IntVector v = IntVector.fromArray(SPECIES, a, i).add(IntVector.fromArray(SPECIES, b, i));
+            store(v, d, i, slot);
+        }
+    }
+
+    private void and(int[] a, int[] b, int[] d, int slot) {
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            IntVector v = IntVector.fromArray(SPECIES, a, i).and(IntVector.fromArray(SPECIES, b, i));
+            store(v, d, i, slot);
+        }
+    }
+
+    private void or(int[] a, int[] b, int[] d, int slot) {
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            IntVector v = IntVector.fromArray(SPECIES, a, i).or(IntVector.fromArray(SPECIES, b, i));
+            store(v, d, i, slot);
+        }
+    }
+
+    private void addi(int[] a, int immediate, int[] d, int slot) {
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            store(IntVector.fromArray(SPECIES, a, i).add(immediate), d, i, slot);
+        }
+    }
+
+    private void andi(int[] a, int immediate, int[] d, int slot) {
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            store(IntVector.fromArray(SPECIES, a, i).and(immediate), d, i, slot);
+        }
+    }
+
+    private void ori(int[] a, int immediate, int[] d, int slot) {
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            store(IntVector.fromArray(SPECIES, a, i).or(immediate), d, i, slot);
+        }
+    }
+
+    /**
+     * Stores a result into every lane, or with a slot of zero or more, into the
+     * lanes waiting at that slot.
+     */
+    private void store(IntVector v, int[] d, int i, int slot) {
+        if (slot < 0)
+            v.intoArray(d, i);
+        else
+            v.intoArray(d, i, IntVector.fromArray(SPECIES, pc, i).eq(slot));
+    }
+
+    private int branchAll(int slot) {
+        int address = imm[slot];
+        if (address < 0 || address >= ic)
+            return slot + 1;
+        VectorOperators.Comparison condition = op[slot] == Predecoder.BEQ ? VectorOperators.EQ : VectorOperators.NE;
+        int[] a = gpr[rs[slot]];
+        int[] b = gpr[rt[slot]];
+        int taken = 0;
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            VectorMask<Integer> m = IntVector.fromArray(SPECIES, a, i).compare(condition, IntVector.fromArray(SPECIES, b, i));
+            taken += m.and(SPECIES.indexInRange(i, lanes)).trueCount();
+        }
+        if (taken == lanes)
+            return address;
+        if (taken == 0)
+            return slot + 1;
+
+        IntVector fallThrough = IntVector.broadcast(SPECIES, slot + 1);
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            VectorMask<Integer> m = IntVector.fromArray(SPECIES, a, i).compare(condition, IntVector.fromArray(SPECIES, b, i));
+            fallThrough.blend(address, m).intoArray(pc, i, SPECIES.indexInRange(i, lanes));
+        }
+        return -1;
+    }
+
+    private void branchWaiting(int slot) {
+        int address = imm[slot];
+        int next = address >= 0 && address < ic ? address : slot + 1;
+        VectorOperators.Comparison condition = op[slot] == Predecoder.BEQ ? VectorOperators.EQ : VectorOperators.NE;
+        int[] a = gpr[rs[slot]];
+        int[] b = gpr[rt[slot]];
+        IntVector fallThrough = IntVector.broadcast(SPECIES, slot + 1);
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            IntVector p = IntVector.fromArray(SPECIES, pc, i);
+            VectorMask<Integer> m = p.eq(slot);
+            VectorMask<Integer> taken = IntVector.fromArray(SPECIES, a, i).compare(condition, IntVector.fromArray(SPECIES, b, i));
+            retired += m.trueCount();
+            fallThrough.blend(next, taken).intoArray(pc, i, m);
+        }
+    }
+
+    /**
+     * Executes a jr, lw or sw lane by lane on the lanes waiting at a slot.
+     */
+    private void scalar(int slot) {
+        int source = rs[slot];
+        int target = rt[slot];
+        int immediate = imm[slot];
+        int count = 0;
+        for (int lane = 0; lane < lanes; lane++) {
+            if (pc[lane] != slot)
+                continue;
+            count++;
+            int next = slot + 1;
+            if (op[slot] == Predecoder.JR) {
+                int address = gpr[source][lane];
+                if (address >= 0 && address < ic)
+                    next = address;
+            } else {
+                int address = gpr[source][lane] + immediate;
+                if (address >= 0 && address < memory.length) {
+                    if (op[slot] == Predecoder.LW)
+                        gpr[target][lane] = memory[address][lane];
+                    else
+                        memory[address][lane] = gpr[target][lane];
+                }
+            }
+            pc[lane] = next;
+        }
+        if (common < 0)
+            retired += count;
+    }
+
+    /**
+     * @return	the lowest instruction pointer of any lane
+     */
+    private int minimumPc() {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            min = Math.min(min, IntVector.fromArray(SPECIES, pc, i).reduceLanes(VectorOperators.MIN));
+        }
+        return min;
+    }
+
+    /**
+     * @return	the instruction pointer of every lane if they are all equal, otherwise -1
+     */
+    private int converged() {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < width; i += SPECIES.length()) {
+            IntVector p = IntVector.fromArray(SPECIES, pc, i);
+            VectorMask<Integer> valid = SPECIES.indexInRange(i, lanes);
+            min = Math.min(min, p.reduceLanes(VectorOperators.MIN, valid));
+            max = Math.max(max, p.reduceLanes(VectorOperators.MAX, valid));
+        }
+        return min == max ? min : -1;
+    }
+
+    private void check(int lane) {
+        if (lane < 0 || lane >= lanes)
+            throw new IndexOutOfBoundsException("Lane " + lane + " out of " + lanes);
+        if (common >= 0)
+            Arrays.fill(pc, 0, lanes, common);
+    }
+}
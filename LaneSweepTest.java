@@ -0,0 +1,126 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link LaneSweep} class. Every lane is checked against a
+ * {@link Computer} run from the same initial state.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class LaneSweepTest {
+
+	/**
+	 * A loop with a different trip count in every lane, followed by memory
+	 * accesses and a jr whose target depends on the lane.
+	 */
+	private static final String[] DIVERGENT = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"10101100011000010000000000000000", // sw   $1, 0($3)
+			"00100000011000110000000000000001", // addi $3, $3, 1
+			"00010100001000100000000000000000", // bne  $1, $2, 0
+			"01011100000001000000000000000000", // lw   $4, 0($0)
+			"00110000100001010000000000000111", // andi $5, $4, 7
+			"00000000110000000000000000001000", // jr   $6
+			"00110100000001110000000001100011", // ori  $7, $0, 99
+			"00000000101000010100000000011001", // or   $8, $5, $1
+			"00010000101000000000000000001011", // beq  $5, $0, 11
+			"00000000100001010100100000010100", // add  $9, $4, $5
+			"00000000001000010101000000011000"  // and  $10, $1, $1
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting LaneSweep.java tests...");
+	}
+	
+	@Test
+	void shouldMatchComputerOnConvergedLanes() {
+		String[] program = TestPrograms.aluProgram();
+		LaneSweep test = new LaneSweep(load(program), 37);
+		for (int lane = 0; lane < 37; lane++) {
+			test.setRegister(lane, 2, 500);
+			test.setRegister(lane, 3, lane * 1000);
+			test.setRegister(lane, 9, -lane);
+		}
+		test.run();
+		
+		long retired = 0;
+		for (int lane = 0; lane < 37; lane++) {
+			Computer expected = load(program);
+			expected.setRegister(2, 500);
+			expected.setRegister(3, lane * 1000);
+			expected.setRegister(9, -lane);
+			expected.run();
+			assertLane(expected, test, lane);
+			retired += expected.getRetired();
+		}
+		assertEquals(retired, test.getRetired());
+	}
+	
+	@Test
+	void shouldMatchComputerOnDivergentLanes() {
+		int lanes = 101;
+		LaneSweep test = new LaneSweep(load(DIVERGENT), lanes);
+		for (int i = 0; i < lanes; i++) {
+			int lane = i;
+			initialize(lane, (register, value) -> test.setRegister(lane, register, value),
+					value -> test.setMemory(lane, 0, value));
+		}
+		test.run();
+		
+		long retired = 0;
+		for (int lane = 0; lane < lanes; lane++) {
+			Computer expected = load(DIVERGENT);
+			initialize(lane, expected::setRegister, value -> expected.getMemory().store(0, value));
+			expected.run();
+			assertLane(expected, test, lane);
+			retired += expected.getRetired();
+		}
+		assertEquals(retired, test.getRetired());
+	}
+	
+	@Test
+	void shouldRejectLargeMemory() {
+		assertThrows(IllegalArgumentException.class, () -> new LaneSweep(new Computer(new PagedMemory()), 4));
+		assertThrows(IllegalArgumentException.class, () -> new LaneSweep(new Computer(), 0));
+	}
+	
+	private interface RegisterSetter {
+		void set(int register, int value);
+	}
+	
+	private interface MemorySetter {
+		void set(int value);
+	}
+	
+	private static void initialize(int lane, RegisterSetter registers, MemorySetter memory) {
+		registers.set(2, 1 + lane % 13);
+		registers.set(3, lane % 20);
+		registers.set(6, lane % 2 == 0 ? 8 : 100);
+		memory.set(lane * 3);
+	}
+	
+	private static void assertLane(Computer expected, LaneSweep test, int lane) {
+		assertEquals(expected.getPc(), test.getPc(lane));
+		for (int register = 0; register < 32; register++) {
+			assertEquals(expected.getRegister(register), test.getRegister(lane, register), "lane " + lane + " $" + register);
+		}
+		for (int address = 0; address < expected.getMemory().size(); address++) {
+			assertEquals(expected.getMemory().load(address), test.getMemory(lane, address), "lane " + lane + " word " + address);
+		}
+	}
+	
+	private static Computer load(String[] program) {
+		Computer computer = new Computer();
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		return computer;
+	}
+}
@@ -0,0 +1,51 @@
+package mipssim.swain91.git;
+import java.io.IOException;
+
+/**
+ * Thrown when a program file contains a line that is not a 32-bit binary
+ * instruction word, or when the header of a {@link ProgramImage} is not
+ * consistent. Records where the line or header field starts so it can be found
+ * in the file.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class MalformedProgramException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+    private final long offset;
+
+    public MalformedProgramException(String reason, long line, long offset) {
+        super("Line " + line + " (byte offset " + offset + "): " + reason);
+        this.line = line;
+        this.offset = offset;
+    }
+
+    /**
+     * For a binary program, which has no lines.
+     * 
+     * @param reason	what is wrong
+     * @param offset	the byte offset of the malformed field
+     */
+    public MalformedProgramException(String reason, long offset) {
+        super("Byte offset " + offset + ": " + reason);
+        this.line = 0;
+        this.offset = offset;
+    }
+
+    /**
+     * @return	the 1-based number of the malformed line, or 0 for a binary program
+     */
+    public long getLine() {
+        return this.line;
+    }
+
+    /**
+     * @return	the byte offset in the file where the malformed line or field starts
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+}
@@ -0,0 +1,142 @@
+package mipssim.swain91.git;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads a program file of binary instruction lines, one 32 character word per
+ * line, into packed instruction words. The file is memory-mapped and scanned
+ * byte by byte straight into an <code>int[]</code>, so no <code>String</code> is
+ * created per line.
+ * 
+ * <p>
+ * Lines may end with <code>\n</code> or <code>\r\n</code>, and blank lines are
+ * skipped. Any other line that is not exactly 32 binary digits is reported with
+ * a {@link MalformedProgramException}.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class MappedProgramLoader {
+
+    private static final int WORD_LENGTH = 32;
+    private static final long MAX_REGION = 1L << 30;
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long NOT_DIGIT = 0xfefefefefefefefeL;
+
+    private MappedProgramLoader() {}
+
+    /**
+     * Loads every instruction word of a program file.
+     * 
+     * @param path	the program file
+     * @return		the instruction words in program order
+     * @throws MalformedProgramException	if a line is not a 32-bit binary word
+     * @throws IOException					if the file cannot be read
+     */
+    public static int[] load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int[] words = new int[(int) Math.min(Integer.MAX_VALUE - 8, size / (WORD_LENGTH + 1) + 1)];
+            int count = 0;
+
+            long line = 1;
+            long lineStart = 0;
+            int word = 0;
+            int digits = 0;
+
+            // Regions are scanned in order and the partial word carries over,
+            // so a line may straddle two mappings.
+            for (long position = 0; position < size; position += MAX_REGION) {
+                long length = Math.min(MAX_REGION, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int i = 0;
+                while (i < length) {
+                    // Fast path: a whole well-formed line is read as four longs
+                    if (digits == 0 && i + WORD_LENGTH < length) {
+                        int end = scanLine(region, i, (int) length);
+                        if (end > 0) {
+                            if (count == words.length)
+                                words = Arrays.copyOf(words, count * 2);
+                            words[count++] = pack(region, i);
+                            i = end;
+                            line++;
+                            lineStart = position + i;
+                            continue;
+                        }
+                    }
+
+                    byte b = region.get(i++);
+                    if (b == '0' || b == '1') {
+                        if (digits == WORD_LENGTH)
+                            throw new MalformedProgramException("more than " + WORD_LENGTH + " binary digits", line, lineStart);
+                        word = (word << 1) | (b - '0');
+                        digits++;
+                    } else if (b == '\n' || b == '\r') {
+                        if (digits == WORD_LENGTH) {
+                            if (count == words.length)
+                                words = Arrays.copyOf(words, count * 2);
+                            words[count++] = word;
+                        } else if (digits != 0) {
+                            throw new MalformedProgramException("only " + digits + " binary digits", line, lineStart);
+                        }
+                        word = 0;
+                        digits = 0;
+                        if (b == '\n') {
+                            line++;
+                            lineStart = position + i;
+                        }
+                    } else {
+                        throw new MalformedProgramException("unexpected character '" + (char) (b & 0xff) + "'", line, lineStart);
+                    }
+                }
+            }
+
+            if (digits == WORD_LENGTH) {
+                if (count == words.length)
+                    words = Arrays.copyOf(words, count + 1);
+                words[count++] = word;
+            } else if (digits != 0) {
+                throw new MalformedProgramException("only " + digits + " binary digits", line, lineStart);
+            }
+            return count == words.length ? words : Arrays.copyOf(words, count);
+        }
+    }
+
+    /**
+     * Checks whether the bytes from <code>start</code> are 32 binary digits
+     * followed by a line break.
+     * 
+     * @return	the index after the line break, or 0 if the line needs the byte by byte scan
+     */
+    private static int scanLine(MappedByteBuffer region, int start, int length) {
+        for (int i = 0; i < WORD_LENGTH; i += 8) {
+            if ((region.getLong(start + i) & NOT_DIGIT) != ZEROS)
+                return 0;
+        }
+        int end = start + WORD_LENGTH;
+        if (region.get(end) == '\n')
+            return end + 1;
+        if (region.get(end) == '\r' && end + 1 < length && region.get(end + 1) == '\n')
+            return end + 2;
+        return 0;
+    }
+
+    /**
+     * Packs 32 binary digits into a word, eight digits at a time. Each digit
+     * byte is turned into a 0 or 1 and the multiply gathers the eight low bits
+     * into the top byte, first digit highest.
+     */
+    private static int pack(MappedByteBuffer region, int start) {
+        int word = 0;
+        for (int i = 0; i < WORD_LENGTH; i += 8) {
+            long bits = region.getLong(start + i) - ZEROS;
+            word = (word << 8) | (int) ((bits * 0x0102040810204080L) >>> 56);
+        }
+        return word;
+    }
+}
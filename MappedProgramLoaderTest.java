@@ -0,0 +1,85 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link MappedProgramLoader} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class MappedProgramLoaderTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting MappedProgramLoader.java tests...");
+	}
+	
+	@Test
+	void shouldLoadLines() throws IOException {
+		Path file = write("00100000000000000000000000001010\n"
+				+ "00000000000000000000000000010100\n");
+		
+		assertArrayEquals(new int[] { 0x2000000a, 0x00000014 }, MappedProgramLoader.load(file));
+	}
+	
+	@Test
+	void shouldLoadCarriageReturnsAndLastLine() throws IOException {
+		Path file = write("00100000000000000000000000001010\r\n"
+				+ "\r\n"
+				+ "11111111111111111111111111111111");
+		
+		assertArrayEquals(new int[] { 0x2000000a, 0xffffffff }, MappedProgramLoader.load(file));
+	}
+	
+	@Test
+	void shouldLoadEmptyFile() throws IOException {
+		assertArrayEquals(new int[0], MappedProgramLoader.load(write("")));
+	}
+	
+	@Test
+	void shouldReportShortLine() throws IOException {
+		Path file = write("00100000000000000000000000001010\n"
+				+ "0010000000000000\n");
+		MalformedProgramException e = assertThrows(MalformedProgramException.class, () -> MappedProgramLoader.load(file));
+		
+		assertEquals(2, e.getLine());
+		assertEquals(33, e.getOffset());
+	}
+	
+	@Test
+	void shouldReportLongLine() throws IOException {
+		Path file = write("001000000000000000000000000010100\n");
+		MalformedProgramException e = assertThrows(MalformedProgramException.class, () -> MappedProgramLoader.load(file));
+		
+		assertEquals(1, e.getLine());
+		assertEquals(0, e.getOffset());
+	}
+	
+	@Test
+	void shouldReportUnexpectedCharacter() throws IOException {
+		Path file = write("00100000000000000000000000001010\r\n"
+				+ "0010000000000000000000000000101x\r\n");
+		MalformedProgramException e = assertThrows(MalformedProgramException.class, () -> MappedProgramLoader.load(file));
+		
+		assertEquals(2, e.getLine());
+		assertEquals(34, e.getOffset());
+	}
+	
+	private static Path write(String contents) throws IOException {
+		Path file = Files.createTempFile("program", ".txt");
+		file.toFile().deleteOnExit();
+		Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+}
@@ -0,0 +1,141 @@
+package mipssim.swain91.git;
+import java.util.List;
+
+/**
+ * The byte and halfword load and store instructions, added to the core set
+ * through {@link InstructionExtension}. Like <code>lw</code> and
+ * <code>sw</code>, each accesses the data memory at <code>$s</code> plus the
+ * sign extended immediate, and does nothing when that is outside memory:
+ *
+ * <ul>
+ * <li> <code>lb</code> and <code>lh</code> load a byte or halfword into
+ * <code>$t</code>, sign extended, and <code>lbu</code> and <code>lhu</code>
+ * zero extended.
+ * <li> <code>sb</code> and <code>sh</code> store the low byte or halfword of
+ * <code>$t</code>.
+ * </ul>
+ *
+ * <p>
+ * The address is a byte address in a {@link ByteMemory}. In a word addressed
+ * memory it is a word address, and the instructions use the low-order bits of
+ * the word, see {@link DataMemory}. The opcodes follow the numbering of
+ * <code>lw</code> (23) and <code>sw</code> (43).
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class MemoryExtension implements InstructionExtension {
+
+    @Override
+    public List<ExtensionInstruction> instructions() {
+        return List.of(new LoadByte("lb", 20, true), new LoadHalf("lh", 21, true),
+                new LoadByte("lbu", 24, false), new LoadHalf("lhu", 25, false),
+                new StoreByte(), new StoreHalf());
+    }
+
+    /**
+     * An instruction that accesses memory at <code>$s</code> plus the
+     * immediate.
+     */
+    private abstract static class Access extends ExtensionInstruction {
+
+        Access(String name, int opcode) {
+            super(name, "I", opcode, 0);
+        }
+
+        @Override
+        public final int address(Computer computer, int source, int immediate) {
+            return computer.getRegister(source) + immediate;
+        }
+    }
+
+    private static final class LoadByte extends Access {
+
+        private final boolean signed;
+
+        LoadByte(String name, int opcode, boolean signed) {
+            super(name, opcode);
+            this.signed = signed;
+        }
+
+        @Override
+        public boolean isLoad() {
+            return true;
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int immediate) {
+            DataMemory memory = computer.getMemory();
+            int address = address(computer, source, immediate);
+            if (memory.contains(address, 1)) {
+                int value = memory.loadByte(address);
+                computer.setRegister(target, signed ? (byte) value : value);
+            }
+        }
+    }
+
+    private static final class LoadHalf extends Access {
+
+        private final boolean signed;
+
+        LoadHalf(String name, int opcode, boolean signed) {
+            super(name, opcode);
+            this.signed = signed;
+        }
+
+        @Override
+        public boolean isLoad() {
+            return true;
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int immediate) {
+            DataMemory memory = computer.getMemory();
+            int address = address(computer, source, immediate);
+            if (memory.contains(address, 2)) {
+                int value = memory.loadHalf(address);
+                computer.setRegister(target, signed ? (short) value : value);
+            }
+        }
+    }
+
+    private static final class StoreByte extends Access {
+
+        StoreByte() {
+            super("sb", 28);
+        }
+
+        @Override
+        public boolean isStore() {
+            return true;
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int immediate) {
+            DataMemory memory = computer.getMemory();
+            int address = address(computer, source, immediate);
+            if (memory.contains(address, 1))
+                memory.storeByte(address, computer.getRegister(target));
+        }
+    }
+
+    private static final class StoreHalf extends Access {
+
+        StoreHalf() {
+            super("sh", 29);
+        }
+
+        @Override
+        public boolean isStore() {
+            return true;
+        }
+
+        @Override
+        public void execute(Computer computer, int source, int target, int destination, int immediate) {
+            DataMemory memory = computer.getMemory();
+            int address = address(computer, source, immediate);
+            if (memory.contains(address, 2))
+                memory.storeHalf(address, computer.getRegister(target));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link MemoryExtension} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class MemoryExtensionTest {
+
+	private static final String[] PROGRAM = {
+			"01010000000000100000000000000100", // lb   $2, 4($0)
+			"01100000000000110000000000000111", // lbu  $3, 7($0)
+			"01010100000001000000000000000110", // lh   $4, 6($0)
+			"01100100000001010000000000000100", // lhu  $5, 4($0)
+			"00100000000000010001001000110100", // addi $1, $0, 0x1234
+			"01110000000000010000000000001001", // sb   $1, 9($0)
+			"01110100000000010000000000001110", // sh   $1, 14($0)
+			"01011100000001100000000000000101"  // lw   $6, 5($0)
+	};
+
+	private static final String[] LOOP = {
+			"00100000000000100000000000101000", // addi $2, $0, 40
+			"00100000001000010000000000000100", // addi $1, $1, 4
+			"10101100001000010000000000000000", // sw   $1, 0($1)
+			"00010100001000100000000000000001"  // bne  $1, $2, 1
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting MemoryExtension.java tests...");
+	}
+
+	@Test
+	void shouldAccessBigEndianBytes() {
+		Computer test = load(PROGRAM, new ByteMemory(64));
+		test.getMemory().store(1, 0x8081f2f3);
+		test.run();
+
+		assertEquals(-128, test.getRegister(2));
+		assertEquals(0xf3, test.getRegister(3));
+		assertEquals((short) 0xf2f3, test.getRegister(4));
+		assertEquals(0x8081, test.getRegister(5));
+		assertEquals(0x00340000, test.getMemory().load(2));
+		assertEquals(0x00001234, test.getMemory().load(3));
+		assertEquals(0x81f2f300, test.getRegister(6));
+	}
+
+	@Test
+	void shouldAccessLittleEndianBytes() {
+		Computer test = load(PROGRAM, new ByteMemory(64, ByteOrder.LITTLE_ENDIAN));
+		test.getMemory().store(1, 0x8081f2f3);
+		test.run();
+
+		assertEquals(-13, test.getRegister(2));
+		assertEquals(0x80, test.getRegister(3));
+		assertEquals((short) 0x8081, test.getRegister(4));
+		assertEquals(0xf2f3, test.getRegister(5));
+		assertEquals(0x00003400, test.getMemory().load(2));
+		assertEquals(0x12340000, test.getMemory().load(3));
+		assertEquals(0x008081f2, test.getRegister(6));
+	}
+
+	@Test
+	void shouldUseLowBitsOfWordAddressedMemory() {
+		Computer test = load(PROGRAM, new ArrayMemory(64));
+		test.getMemory().store(4, 0x000012f3);
+		test.getMemory().store(9, 0x7fffffff);
+		test.run();
+
+		assertEquals(-13, test.getRegister(2));
+		assertEquals(0x12f3, test.getRegister(5));
+		assertEquals(0x7fffff34, test.getMemory().load(9));
+		assertEquals(0x1234, test.getMemory().load(14));
+	}
+
+	@Test
+	void shouldAddressWordsByByteInEveryTier() {
+		Computer expected = load(LOOP, new ByteMemory(64));
+		expected.run();
+		Computer tiered = load(LOOP, new ByteMemory(64));
+		tiered.setCompiler(new BlockCompiler(1));
+		tiered.run();
+
+		for (int i = 0; i < 64; i++) {
+			assertEquals(i >= 1 && i <= 10 ? 4 * i : 0, expected.getMemory().load(i), "word " + i);
+			assertEquals(expected.getMemory().load(i), tiered.getMemory().load(i), "word " + i);
+		}
+		assertEquals(expected.getRetired(), tiered.getRetired());
+	}
+
+	@Test
+	void shouldNotSweepByteMemory() {
+		assertThrows(IllegalArgumentException.class, () -> new LaneSweep(load(LOOP, new ByteMemory(64)), 4));
+	}
+
+	private static Computer load(String[] program, DataMemory memory) {
+		Computer computer = new Computer(memory);
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		return computer;
+	}
+}
@@ -0,0 +1,170 @@
+package mipssim.swain91.git;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Data memory held outside the Java heap in direct or memory-mapped byte buffers,
+ * so it takes no part in garbage collection. Words are stored little-endian, the
+ * same as the data segment of a {@link ProgramImage}.
+ * 
+ * <p>
+ * A memory created by {@link #map(Path, boolean)} uses a RAM image file as the
+ * simulated memory itself: the initial data is paged in by the operating system
+ * on first access and, in shared mode, stores go straight back to the file.
+ * Memory is split into buffers of at most 1 GiB so it can exceed the 2 GiB limit
+ * of a single buffer.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class OffHeapMemory implements DataMemory {
+
+    private static final int SEGMENT_BITS = 28;
+    private static final int SEGMENT_WORDS = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_WORDS - 1;
+    private static final byte[] ZEROS = new byte[1 << 16];
+
+    private final ByteBuffer[] segments;
+    private final int size;
+
+    private OffHeapMemory(ByteBuffer[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Allocates zeroed off-heap memory.
+     * 
+     * @param size	the number of addressable words
+     * @return		the memory
+     */
+    public static OffHeapMemory allocate(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Invalid memory size " + size);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(size)];
+        for (int i = 0; i < segments.length; i++) {
+            int words = Math.min(SEGMENT_WORDS, size - i * SEGMENT_WORDS);
+            segments[i] = ByteBuffer.allocateDirect(words * 4).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new OffHeapMemory(segments, size);
+    }
+
+    /**
+     * Maps a RAM image file as memory, one word per four bytes of the file.
+     * 
+     * @param path		the RAM image file; its length must be a multiple of four
+     * @param shared	whether stores are written back to the file; otherwise they
+     * 					stay private to this memory
+     * @return			the memory
+     * @throws IOException	if the file cannot be mapped
+     */
+    public static OffHeapMemory map(Path path, boolean shared) throws IOException {
+        // Private mappings are copy-on-write, which also needs a writable channel
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long bytes = channel.size();
+            if (bytes % 4 != 0 || bytes / 4 > Integer.MAX_VALUE)
+                throw new IOException(path + " is not a RAM image of whole words");
+            int size = (int) (bytes / 4);
+            FileChannel.MapMode mode = shared ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.PRIVATE;
+
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(size)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i * SEGMENT_WORDS * 4;
+                int words = Math.min(SEGMENT_WORDS, size - i * SEGMENT_WORDS);
+                segments[i] = channel.map(mode, position, words * 4L).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new OffHeapMemory(segments, size);
+        }
+    }
+
+    private static int segmentCount(int size) {
+        return (int) (((long) size + SEGMENT_MASK) >>> SEGMENT_BITS);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int address) {
+        return address >= 0 && address < size;
+    }
+
+    @Override
+    public int load(int address) {
+        return segments[address >>> SEGMENT_BITS].getInt((address & SEGMENT_MASK) << 2);
+    }
+
+    @Override
+    public void store(int address, int value) {
+        segments[address >>> SEGMENT_BITS].putInt((address & SEGMENT_MASK) << 2, value);
+    }
+
+    /**
+     * Sets every word to zero with bulk writes into each buffer. For a memory
+     * mapped in shared mode the zeros reach the file as well.
+     */
+    @Override
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int index = 0; index < segment.capacity(); index += ZEROS.length) {
+                segment.put(index, ZEROS, 0, Math.min(ZEROS.length, segment.capacity() - index));
+            }
+        }
+    }
+
+    /**
+     * Copies every buffer into newly allocated direct buffers, in time
+     * proportional to the size of the memory. The copy is allocated off-heap
+     * even when this memory is mapped, so its stores never reach the file.
+     * 
+     * @return	an independent memory with the same contents
+     */
+    @Override
+    public OffHeapMemory fork() {
+        ByteBuffer[] copies = new ByteBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            ByteBuffer segment = segments[i];
+            copies[i] = ByteBuffer.allocateDirect(segment.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+            copies[i].put(0, segment, 0, segment.capacity());
+        }
+        return new OffHeapMemory(copies, size);
+    }
+
+    /**
+     * Flushes stores to a memory mapped in shared mode back to its file. Does
+     * nothing for allocated or privately mapped memory.
+     */
+    public void force() {
+        for (ByteBuffer segment : segments) {
+            if (segment instanceof MappedByteBuffer && !segment.isReadOnly())
+                ((MappedByteBuffer) segment).force();
+        }
+    }
+
+    /**
+     * Writes the whole memory to a RAM image file, straight from the off-heap
+     * buffers. The file can be mapped again with {@link #map(Path, boolean)}.
+     * 
+     * @param path	the RAM image file to write
+     * @throws IOException	if the file cannot be written
+     */
+    public void writeTo(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ByteBuffer segment : segments) {
+                ByteBuffer view = segment.duplicate();
+                view.clear();
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+            }
+        }
+    }
+}
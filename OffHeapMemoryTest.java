@@ -0,0 +1,135 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link OffHeapMemory} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class OffHeapMemoryTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting OffHeapMemory.java tests...");
+	}
+	
+	@Test
+	void shouldAllocateZeroedMemory() {
+		OffHeapMemory test = OffHeapMemory.allocate(100);
+		test.store(99, -5);
+		
+		assertEquals(100, test.size());
+		assertEquals(0, test.load(0));
+		assertEquals(-5, test.load(99));
+		assertFalse(test.contains(100));
+	}
+	
+	@Test
+	void shouldClear() {
+		OffHeapMemory test = OffHeapMemory.allocate(100000);
+		test.store(0, 1);
+		test.store(99999, 2);
+		test.clear();
+		
+		assertEquals(0, test.load(0));
+		assertEquals(0, test.load(99999));
+	}
+	
+	@Test
+	void shouldForkComputer() throws IOException {
+		Path file = image(1, 2, 3, 4);
+		Computer computer = new Computer(OffHeapMemory.map(file, true));
+		Computer test = computer.fork();
+		test.getMemory().store(0, 10);
+		computer.getMemory().store(1, 20);
+		
+		assertEquals(10, test.getMemory().load(0));
+		assertEquals(2, test.getMemory().load(1));
+		assertEquals(1, computer.getMemory().load(0));
+		assertEquals(20, computer.getMemory().load(1));
+		assertArrayEquals(words(1, 20, 3, 4), Files.readAllBytes(file));
+	}
+	
+	@Test
+	void shouldMapImageAndWriteBack() throws IOException {
+		Path file = image(1, 2, 3, 4);
+		OffHeapMemory test = OffHeapMemory.map(file, true);
+		
+		assertEquals(4, test.size());
+		assertEquals(3, test.load(2));
+		test.store(2, 30);
+		test.force();
+		
+		assertArrayEquals(words(1, 2, 30, 4), Files.readAllBytes(file));
+	}
+	
+	@Test
+	void shouldMapImagePrivately() throws IOException {
+		Path file = image(1, 2, 3, 4);
+		OffHeapMemory test = OffHeapMemory.map(file, false);
+		test.store(0, 10);
+		test.force();
+		
+		assertEquals(10, test.load(0));
+		assertArrayEquals(words(1, 2, 3, 4), Files.readAllBytes(file));
+	}
+	
+	@Test
+	void shouldWriteImage() throws IOException {
+		OffHeapMemory test = OffHeapMemory.allocate(3);
+		test.store(1, 0x01020304);
+		Path file = image();
+		test.writeTo(file);
+		
+		assertArrayEquals(words(0, 0x01020304, 0), Files.readAllBytes(file));
+	}
+	
+	@Test
+	void shouldRejectPartialWords() throws IOException {
+		Path file = image();
+		Files.write(file, new byte[] { 1, 2, 3 });
+		
+		assertThrows(IOException.class, () -> OffHeapMemory.map(file, false));
+	}
+	
+	@Test
+	void shouldBackComputer() {
+		Computer test = new Computer(OffHeapMemory.allocate(1 << 20));
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("00100000000000000111111111111111")));
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("10101100000000000000000000000001")));
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("01011100000000010000000000000001")));
+		test.run();
+		
+		assertEquals(32767, test.getMemory().load(32768));
+		assertEquals(32767, test.getGpr()[1]);
+	}
+	
+	private static Path image(int... values) throws IOException {
+		Path file = Files.createTempFile("memory", ".ram");
+		file.toFile().deleteOnExit();
+		Files.write(file, words(values));
+		return file;
+	}
+	
+	private static byte[] words(int... values) {
+		ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+		for (int value : values) {
+			buffer.putInt(value);
+		}
+		return buffer.array();
+	}
+}
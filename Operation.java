@@ -0,0 +1,26 @@
+package mipssim.swain91.git;
+
+/**
+ * A handler that performs one predecoded operation on a {@link Computer}.
+ * Each operation has its own handler in the handler table of {@link Computer}.
+ * The interpreter runs the core operations through a switch and only calls
+ * the handlers of extension operations, while an {@link InstructionFuser}
+ * calls a handler for every slot.
+ * 
+ * <p>
+ * Operation is an abstract class rather than an interface so the call from the
+ * handler table is a virtual call instead of an interface call.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+abstract class Operation {
+
+    /**
+     * Performs the operation of a predecoded instruction slot.
+     * 
+     * @param computer	the computer the operation is performed on
+     * @param slot		the instruction slot holding the operands
+     */
+    abstract void execute(Computer computer, int slot);
+}
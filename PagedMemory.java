@@ -0,0 +1,226 @@
+package mipssim.swain91.git;
+
+/**
+ * Sparse data memory split into fixed-size pages that are allocated the first
+ * time they are written. Reading a page that was never written returns 0 without
+ * allocating it, so a large address space costs memory only for the pages a
+ * program touches.
+ * 
+ * <p>
+ * Pages are found through a two-level page table. The most recently used page is
+ * remembered, so repeated accesses to the same page skip the table walk.
+ * 
+ * <p>
+ * {@link #fork()} shares the page table and every page between the original and
+ * the copy, so it takes constant time whatever the size of the memory. Each
+ * memory records which table levels and pages it owns with an owner token; a
+ * write to something it does not own copies that page, and the table levels
+ * above it, first. Only the pages written after a fork are duplicated.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class PagedMemory implements DataMemory {
+
+    private static final int TABLE_BITS = 10;
+    private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+    private static final int DEFAULT_PAGE_WORDS = 1024;
+
+    private final int size;
+    private final int pageBits;
+    private final int pageMask;
+    private final int maxPages;
+    private int[][][] directory;
+    private int allocatedPages;
+    private int copiedPages;
+
+    /**
+     * Owner tokens of the directory, of each table and of each page. A level may
+     * only be written by the memory whose token it carries.
+     */
+    private Object token = new Object();
+    private Object directoryOwner = token;
+    private Object[] tableOwners;
+    private Object[][] pageOwners;
+
+    private int lastPageNumber = -1;
+    private int[] lastPage;
+    private boolean lastPageOwned;
+
+    /**
+     * Creates the largest memory, 2<sup>31</sup> - 1 words in pages of 1024
+     * words, with no limit on allocated pages.
+     */
+    public PagedMemory() {
+        this(Integer.MAX_VALUE, DEFAULT_PAGE_WORDS, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param size		the number of addressable words
+     * @param pageWords	the words per page, a power of two
+     * @param maxPages	the most pages that may be allocated
+     */
+    public PagedMemory(int size, int pageWords, int maxPages) {
+        if (size < 0 || pageWords <= 0 || Integer.bitCount(pageWords) != 1 || maxPages < 0)
+            throw new IllegalArgumentException("Invalid paged memory size " + size + ", page words "
+                    + pageWords + " or page limit " + maxPages);
+        this.size = size;
+        this.pageBits = Integer.numberOfTrailingZeros(pageWords);
+        this.pageMask = pageWords - 1;
+        this.maxPages = maxPages;
+
+        long pages = ((long) size + pageMask) >>> pageBits;
+        this.directory = new int[(int) ((pages + TABLE_MASK) >>> TABLE_BITS)][][];
+        this.tableOwners = new Object[directory.length];
+        this.pageOwners = new Object[directory.length][];
+    }
+
+    /**
+     * Sets every word to zero by dropping the page table and every page, in
+     * time proportional to the size of the directory rather than of the
+     * memory. The counts of allocated and copied pages start again from zero.
+     * A fork that shares the pages keeps them.
+     */
+    @Override
+    public void clear() {
+        directory = new int[directory.length][][];
+        tableOwners = new Object[directory.length];
+        pageOwners = new Object[directory.length][];
+        directoryOwner = token;
+        allocatedPages = 0;
+        copiedPages = 0;
+        lastPageNumber = -1;
+        lastPage = null;
+    }
+
+    /**
+     * Creates a fork that shares every table and page of another memory.
+     */
+    private PagedMemory(PagedMemory other) {
+        this.size = other.size;
+        this.pageBits = other.pageBits;
+        this.pageMask = other.pageMask;
+        this.maxPages = other.maxPages;
+        this.directory = other.directory;
+        this.allocatedPages = other.allocatedPages;
+        this.directoryOwner = other.directoryOwner;
+        this.tableOwners = other.tableOwners;
+        this.pageOwners = other.pageOwners;
+    }
+
+    /**
+     * Creates a copy of this memory in constant time. Both memories then share
+     * their pages until one of them writes to a page, which copies it.
+     * 
+     * @return	an independent memory with the same contents
+     */
+    @Override
+    public PagedMemory fork() {
+        PagedMemory child = new PagedMemory(this);
+        token = new Object();
+        lastPageNumber = -1;
+        lastPage = null;
+        return child;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int address) {
+        return address >= 0 && address < size;
+    }
+
+    @Override
+    public int load(int address) {
+        int pageNumber = address >>> pageBits;
+        if (pageNumber == lastPageNumber)
+            return lastPage[address & pageMask];
+
+        int[] page = find(pageNumber);
+        if (page == null)
+            return 0;
+        lastPageNumber = pageNumber;
+        lastPage = page;
+        lastPageOwned = pageOwners[pageNumber >>> TABLE_BITS][pageNumber & TABLE_MASK] == token;
+        return page[address & pageMask];
+    }
+
+    @Override
+    public void store(int address, int value) {
+        int pageNumber = address >>> pageBits;
+        if (pageNumber != lastPageNumber || !lastPageOwned) {
+            lastPage = writable(pageNumber);
+            lastPageNumber = pageNumber;
+            lastPageOwned = true;
+        }
+        lastPage[address & pageMask] = value;
+    }
+
+    /**
+     * @return	the number of pages allocated so far
+     */
+    public int getAllocatedPages() {
+        return allocatedPages;
+    }
+
+    /**
+     * @return	the number of shared pages this memory has copied since it was created
+     */
+    public int getCopiedPages() {
+        return copiedPages;
+    }
+
+    public int getPageWords() {
+        return pageMask + 1;
+    }
+
+    private int[] find(int pageNumber) {
+        int[][] table = directory[pageNumber >>> TABLE_BITS];
+        return table == null ? null : table[pageNumber & TABLE_MASK];
+    }
+
+    /**
+     * Finds a page that this memory owns, allocating it, or copying it and the
+     * table levels above it, as needed.
+     */
+    private int[] writable(int pageNumber) {
+        if (directoryOwner != token) {
+            directory = directory.clone();
+            tableOwners = tableOwners.clone();
+            pageOwners = pageOwners.clone();
+            directoryOwner = token;
+        }
+        int index = pageNumber >>> TABLE_BITS;
+        int[][] table = directory[index];
+        if (table == null) {
+            table = new int[1 << TABLE_BITS][];
+            directory[index] = table;
+            pageOwners[index] = new Object[1 << TABLE_BITS];
+            tableOwners[index] = token;
+        } else if (tableOwners[index] != token) {
+            table = table.clone();
+            directory[index] = table;
+            pageOwners[index] = pageOwners[index].clone();
+            tableOwners[index] = token;
+        }
+
+        int[] page = table[pageNumber & TABLE_MASK];
+        if (page == null) {
+            if (allocatedPages == maxPages)
+                throw new IllegalStateException("Paged memory limit of " + maxPages + " pages reached");
+            page = new int[pageMask + 1];
+            allocatedPages++;
+        } else if (pageOwners[index][pageNumber & TABLE_MASK] != token) {
+            page = page.clone();
+            copiedPages++;
+        } else {
+            return page;
+        }
+        table[pageNumber & TABLE_MASK] = page;
+        pageOwners[index][pageNumber & TABLE_MASK] = token;
+        return page;
+    }
+}
@@ -0,0 +1,163 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link PagedMemory} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class PagedMemoryTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting PagedMemory.java tests...");
+	}
+	
+	@Test
+	void shouldReadZeroWithoutAllocating() {
+		PagedMemory test = new PagedMemory();
+		
+		assertEquals(0, test.load(123456789));
+		assertEquals(0, test.getAllocatedPages());
+	}
+	
+	@Test
+	void shouldAllocatePageOnFirstWrite() {
+		PagedMemory test = new PagedMemory();
+		test.store(2000000000, 7);
+		test.store(2000000001, 8);
+		
+		assertEquals(7, test.load(2000000000));
+		assertEquals(8, test.load(2000000001));
+		assertEquals(1, test.getAllocatedPages());
+	}
+	
+	@Test
+	void shouldKeepPagesApart() {
+		PagedMemory test = new PagedMemory(1 << 20, 16, 100);
+		for (int i = 0; i < 64; i++) {
+			test.store(i * 17, i);
+		}
+		for (int i = 0; i < 64; i++) {
+			assertEquals(i, test.load(i * 17));
+		}
+		
+		assertEquals(64, test.getAllocatedPages());
+	}
+	
+	@Test
+	void shouldBoundAddresses() {
+		PagedMemory test = new PagedMemory(100, 16, 10);
+		
+		assertTrue(test.contains(99));
+		assertFalse(test.contains(100));
+		assertFalse(test.contains(-1));
+	}
+	
+	@Test
+	void shouldLimitPages() {
+		PagedMemory test = new PagedMemory(1024, 16, 2);
+		test.store(0, 1);
+		test.store(16, 1);
+		
+		assertThrows(IllegalStateException.class, () -> test.store(32, 1));
+	}
+	
+	@Test
+	void shouldRejectPageSizeNotPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new PagedMemory(1024, 100, 2));
+	}
+	
+	@Test
+	void shouldForkWithoutSharingWrites() {
+		PagedMemory test = new PagedMemory(1 << 20, 64, Integer.MAX_VALUE);
+		for (int address = 0; address < 1 << 16; address++) {
+			test.store(address, address);
+		}
+		PagedMemory fork = test.fork();
+		fork.store(100, -1);
+		test.store(5000, -2);
+		
+		assertEquals(100, test.load(100));
+		assertEquals(-1, fork.load(100));
+		assertEquals(-2, test.load(5000));
+		assertEquals(5000, fork.load(5000));
+		assertEquals(1, fork.getCopiedPages());
+		assertEquals(1, test.getCopiedPages());
+		
+		fork.store(101, -3);
+		assertEquals(1, fork.getCopiedPages());
+		assertEquals(101, test.load(101));
+	}
+	
+	@Test
+	void shouldForkRepeatedly() {
+		PagedMemory test = new PagedMemory(4096, 16, Integer.MAX_VALUE);
+		test.store(0, 1);
+		PagedMemory first = test.fork();
+		PagedMemory second = first.fork();
+		second.store(0, 3);
+		first.store(0, 2);
+		second.store(4000, 4);
+		
+		assertEquals(1, test.load(0));
+		assertEquals(2, first.load(0));
+		assertEquals(3, second.load(0));
+		assertEquals(0, first.load(4000));
+		assertEquals(4, second.load(4000));
+		assertEquals(1, test.getAllocatedPages());
+		assertEquals(2, second.getAllocatedPages());
+	}
+	
+	@Test
+	void shouldBackComputer() {
+		Computer test = new Computer(new PagedMemory());
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("00100000000000000111111111111111")));
+		test.insertInstruction(new RegisterInstruction(new InstructionString("00000000000000000000000000010100")));
+		test.insertInstruction(new RegisterInstruction(new InstructionString("00000000000000000000000000010100")));
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("10101100000000000000000000000011")));
+		test.insertInstruction(new ImmediateInstruction(new InstructionString("01011100000000100000000000000011")));
+		test.run();
+		
+		assertEquals(131068, test.getGpr()[0]);
+		assertEquals(131068, test.getMemory().load(131071));
+		assertEquals(131068, test.getGpr()[2]);
+	}
+	
+	@Test
+	void shouldClearWithoutVisitingEveryWord() {
+		Computer test = new Computer(new PagedMemory());
+		test.getMemory().store(5, 1);
+		test.getMemory().store(2000000000, 2);
+		
+		assertTimeout(Duration.ofSeconds(1), test::reset);
+		PagedMemory memory = (PagedMemory) test.getMemory();
+		assertEquals(0, memory.load(5));
+		assertEquals(0, memory.load(2000000000));
+		assertEquals(0, memory.getAllocatedPages());
+	}
+	
+	@Test
+	void shouldClearWithoutTouchingFork() {
+		PagedMemory test = new PagedMemory(4096, 16, Integer.MAX_VALUE);
+		test.store(7, 1);
+		PagedMemory fork = test.fork();
+		test.clear();
+		test.store(8, 2);
+		
+		assertEquals(0, test.load(7));
+		assertEquals(1, fork.load(7));
+		assertEquals(0, fork.load(8));
+	}
+}
@@ -0,0 +1,148 @@
+package mipssim.swain91.git;
+import java.util.Arrays;
+
+/**
+ * Translates a packed 32-bit instruction word into the predecoded form that
+ * {@link Computer} executes. Each instruction is decoded once, when it is loaded,
+ * into a dense operation ID and its resolved operands, which {@link Computer}
+ * keeps in parallel arrays indexed by instruction slot.
+ *
+ * <p>
+ * The resolved immediate is the sign extended immediate value, the zero extended
+ * immediate for addiu, or the jump address for jump. Encodings that are not a
+ * known instruction decode to {@link #NONE} and execute as a no-op.
+ *
+ * <p>
+ * The instructions of every {@link InstructionExtension} take the operation IDs
+ * from {@link #FIRST_EXTENSION} on, in the order {@link InstructionSet} loaded
+ * them, and decode their immediate themselves.
+ *
+ * <p>
+ * A slot of a program loaded with lazy decoding holds {@link #UNDECODED} until
+ * it first executes, see {@link Computer#setLazyDecoding(boolean)}.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+final class Predecoder {
+
+    /**
+     * A slot whose word has not been decoded yet. Its operands are not set.
+     * It is the default of a new program array, so loading a slot lazily does
+     * not have to mark it.
+     */
+    static final int UNDECODED = 0;
+
+    static final int JR = 1;
+    static final int ADD = 2;
+    static final int ADDU = 3;
+    static final int AND = 4;
+    static final int OR = 5;
+    static final int JUMP = 6;
+    static final int BEQ = 7;
+    static final int BNE = 8;
+    static final int ADDI = 9;
+    static final int ADDIU = 10;
+    static final int ANDI = 11;
+    static final int ORI = 12;
+    static final int LW = 13;
+    static final int SW = 14;
+    static final int NONE = 15;
+
+    /**
+     * The operation ID of the first extension instruction.
+     */
+    static final int FIRST_EXTENSION = 16;
+
+    /**
+     * The number of operation IDs, and so the size of a dispatch table.
+     */
+    static final int OPERATION_COUNT = FIRST_EXTENSION + InstructionSet.extensionCount();
+
+    /**
+     * Operation IDs indexed by {@link #key(int)}.
+     */
+    private static final int[] OPERATIONS = new int[128];
+
+    static {
+        Arrays.fill(OPERATIONS, NONE);
+        OPERATIONS[key(0, 8)] = JR;
+        OPERATIONS[key(0, 20)] = ADD;
+        OPERATIONS[key(0, 21)] = ADDU;
+        OPERATIONS[key(0, 24)] = AND;
+        OPERATIONS[key(0, 25)] = OR;
+        OPERATIONS[key(2, 0)] = JUMP;
+        OPERATIONS[key(4, 0)] = BEQ;
+        OPERATIONS[key(5, 0)] = BNE;
+        OPERATIONS[key(8, 0)] = ADDI;
+        OPERATIONS[key(9, 0)] = ADDIU;
+        OPERATIONS[key(12, 0)] = ANDI;
+        OPERATIONS[key(13, 0)] = ORI;
+        OPERATIONS[key(23, 0)] = LW;
+        OPERATIONS[key(43, 0)] = SW;
+        for (int operation = FIRST_EXTENSION; operation < OPERATION_COUNT; operation++) {
+            ExtensionInstruction instruction = InstructionSet.extension(operation);
+            int key = key(instruction.getOpcode(), instruction.getFunction());
+            if (OPERATIONS[key] != NONE)
+                throw new IllegalStateException("Extension instruction " + instruction.getName()
+                        + " has the encoding of " + InstructionSet.name(OPERATIONS[key]));
+            OPERATIONS[key] = operation;
+        }
+    }
+
+    private Predecoder() {}
+
+    /**
+     * Combines an opcode and function code into one table index. Register
+     * instructions share opcode 0 and are told apart by their function code,
+     * every other opcode identifies the instruction on its own.
+     * 
+     * @param opcode	the 6 bit opcode
+     * @param function	the 6 bit function code
+     * @return			the combined key, from 0 to 127
+     */
+    static int key(int opcode, int function) {
+        return opcode == 0 ? 64 | function : opcode;
+    }
+
+    /**
+     * Decodes the operation ID of a packed instruction word.
+     *
+     * @param word	the instruction as a packed <code>int</code>
+     * @return		the dense operation ID
+     */
+    static int operation(int word) {
+        return OPERATIONS[key(word >>> 26, word & 0x3f)];
+    }
+
+    static int source(int word) {
+        return (word >>> 21) & 0x1f;
+    }
+
+    static int target(int word) {
+        return (word >>> 16) & 0x1f;
+    }
+
+    static int destination(int word) {
+        return (word >>> 11) & 0x1f;
+    }
+
+    /**
+     * Resolves the immediate operand of a packed instruction word for its operation.
+     *
+     * @param operation	the operation ID decoded from the word
+     * @param word		the instruction as a packed <code>int</code>
+     * @return			the jump address, zero or sign extended immediate, or the
+     * 					operand an extension instruction decodes
+     */
+    static int immediate(int operation, int word) {
+        if (operation >= FIRST_EXTENSION)
+            return InstructionSet.extension(operation).decodeImmediate(word);
+        else if (operation == JUMP)
+            return (word << 6) >> 6;
+        else if (operation == ADDIU)
+            return word & 0xffff;
+        else
+            return (short) word;
+    }
+}
@@ -0,0 +1,62 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link Predecoder} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class PredecoderTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting Predecoder.java tests...");
+	}
+	
+	@Test
+	void shouldPredecodeRegisterInstruction() {
+		int test = InstructionString.parseWord("00000000001000100001100000011000");
+		
+		assertEquals(Predecoder.AND, Predecoder.operation(test));
+		assertEquals(1, Predecoder.source(test));
+		assertEquals(2, Predecoder.target(test));
+		assertEquals(3, Predecoder.destination(test));
+	}
+	
+	@Test
+	void shouldPredecodeSignedImmediate() {
+		int test = InstructionString.parseWord("00100011111111111111111111110110");
+		
+		assertEquals(Predecoder.ADDI, Predecoder.operation(test));
+		assertEquals(31, Predecoder.source(test));
+		assertEquals(31, Predecoder.target(test));
+		assertEquals(-10, Predecoder.immediate(Predecoder.ADDI, test));
+	}
+	
+	@Test
+	void shouldPredecodeUnsignedImmediate() {
+		int test = InstructionString.parseWord("00100100000000001111111111110110");
+		
+		assertEquals(Predecoder.ADDIU, Predecoder.operation(test));
+		assertEquals(65526, Predecoder.immediate(Predecoder.ADDIU, test));
+	}
+	
+	@Test
+	void shouldPredecodeJumpAddress() {
+		int test = InstructionString.parseWord("00001000000000000000000000000110");
+		
+		assertEquals(Predecoder.JUMP, Predecoder.operation(test));
+		assertEquals(6, Predecoder.immediate(Predecoder.JUMP, test));
+	}
+	
+	@Test
+	void shouldPredecodeUnknownAsNone() {
+		assertEquals(Predecoder.NONE, Predecoder.operation(InstructionString.parseWord("00000000000000010000100000111111")));
+		assertEquals(Predecoder.NONE, Predecoder.operation(InstructionString.parseWord("11111100000000000000000000000000")));
+	}
+}
@@ -0,0 +1,227 @@
+package mipssim.swain91.git;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A MIPS program in a compact binary form that loads without parsing. The file
+ * is little-endian and laid out as follows:
+ * 
+ * <pre>
+ * [ 4 bytes ][ 2 bytes ][ 2 bytes ][ 4 bytes  ][ 4 bytes    ][ 4 bytes    ][ 4 bytes  ]
+ * [  magic  ][ version ][  flags  ][ entry pc ][ text words ][ data words ][ reserved ]
+ * [ 32 register words, if flag 1 is set ][ text segment ][ data segment ]
+ * </pre>
+ * 
+ * <p>
+ * The text segment holds the packed instruction words and the data segment the
+ * initial memory words. Reading maps the file and copies each segment with a
+ * single bulk read.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class ProgramImage {
+
+    static final int MAGIC = 0x4250494d; // "MIPB"
+    static final short VERSION = 1;
+    static final short FLAG_REGISTERS = 1;
+    static final int HEADER_SIZE = 24;
+    static final int REGISTER_COUNT = 32;
+
+    private final int entry;
+    private final int[] registers;
+    private final int[] text;
+    private final int[] data;
+
+    /**
+     * @param entry		the instruction slot execution starts at
+     * @param registers	the initial register values, or <code>null</code> to start at zero
+     * @param text		the packed instruction words
+     * @param data		the initial memory words
+     */
+    public ProgramImage(int entry, int[] registers, int[] text, int[] data) {
+        if (registers != null && registers.length != REGISTER_COUNT)
+            throw new IllegalArgumentException("Register image must hold " + REGISTER_COUNT + " words");
+        this.entry = entry;
+        this.registers = registers;
+        this.text = text;
+        this.data = data;
+    }
+
+    public int getEntry() { return this.entry; }
+
+    public int[] getRegisters() { return this.registers; }
+
+    public int[] getText() { return this.text; }
+
+    public int[] getData() { return this.data; }
+
+    /**
+     * Reads a program image by mapping the file.
+     * 
+     * @param path	the image file
+     * @return		the program image
+     * @throws IOException	if the file cannot be read or is not a program image
+     */
+    public static ProgramImage read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new IOException(path + " is too short to be a program image");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(buffer, path.toString());
+        }
+    }
+
+    /**
+     * Reads a program image from the remaining bytes of a buffer, which must
+     * hold exactly one image.
+     * 
+     * @param buffer	the image bytes, from its position to its limit
+     * @param name		what the image is called in error messages, such as its file
+     * @return			the program image
+     * @throws IOException	if the bytes are not a program image
+     * @throws MalformedProgramException	if the entry slot is outside the text segment
+     */
+    static ProgramImage decode(ByteBuffer buffer, String name) throws IOException {
+        buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        long size = buffer.remaining();
+        if (size < HEADER_SIZE)
+            throw new IOException(name + " is too short to be a program image");
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException(name + " is not a program image");
+        if (buffer.getShort(4) != VERSION)
+            throw new IOException(name + " has unsupported version " + buffer.getShort(4));
+
+        short flags = buffer.getShort(6);
+        int entry = buffer.getInt(8);
+        int textWords = buffer.getInt(12);
+        int dataWords = buffer.getInt(16);
+        int registerWords = (flags & FLAG_REGISTERS) != 0 ? REGISTER_COUNT : 0;
+        if (textWords < 0 || dataWords < 0
+                || size != HEADER_SIZE + 4L * ((long) registerWords + textWords + dataWords))
+            throw new IOException(name + " has segment sizes that do not match its length");
+        if (entry < 0 || entry > textWords)
+            throw new MalformedProgramException(name + " has entry slot " + entry + " outside its "
+                    + textWords + " text words", 8);
+
+        buffer.position(HEADER_SIZE);
+        IntBuffer words = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int[] registers = null;
+        if (registerWords != 0) {
+            registers = new int[REGISTER_COUNT];
+            words.get(registers);
+        }
+        int[] text = new int[textWords];
+        words.get(text);
+        int[] data = new int[dataWords];
+        words.get(data);
+        return new ProgramImage(entry, registers, text, data);
+    }
+
+    /**
+     * @return	the number of bytes {@link #encode(ByteBuffer)} writes
+     */
+    int encodedSize() {
+        int registerWords = registers != null ? REGISTER_COUNT : 0;
+        return HEADER_SIZE + 4 * (registerWords + text.length + data.length);
+    }
+
+    /**
+     * Writes this program image in the file layout at the position of a
+     * buffer, and moves the position past it.
+     * 
+     * @param buffer	a buffer with at least {@link #encodedSize()} bytes remaining
+     */
+    void encode(ByteBuffer buffer) {
+        ByteBuffer image = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        image.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort(registers != null ? FLAG_REGISTERS : 0)
+                .putInt(entry)
+                .putInt(text.length)
+                .putInt(data.length)
+                .putInt(0);
+        IntBuffer words = image.asIntBuffer();
+        if (registers != null)
+            words.put(registers);
+        words.put(text);
+        words.put(data);
+        buffer.position(buffer.position() + encodedSize());
+    }
+
+    /**
+     * Writes this program image to a file, replacing it if it exists.
+     * 
+     * @param path	the image file
+     * @throws IOException	if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize());
+        encode(buffer);
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Loads the text segment into a computer, sets its instruction pointer to the
+     * entry slot and copies in the register and memory images. The text is
+     * appended after any instructions the computer already holds, and the entry
+     * slot counts from the first instruction of the text.
+     * 
+     * @param computer	the computer to load
+     * @throws IllegalArgumentException	if the data segment does not fit the computer's memory
+     */
+    void loadInto(Computer computer) {
+        DataMemory memory = computer.getMemory();
+        if (data.length > memory.size())
+            throw new IllegalArgumentException("Data segment of " + data.length + " words does not fit in "
+                    + memory.size() + " words of memory");
+        int first = computer.getInstructionCount();
+        computer.load(text, text.length);
+        computer.setPc(first + entry);
+        if (registers != null)
+            System.arraycopy(registers, 0, computer.getGpr(), 0, REGISTER_COUNT);
+        for (int i = 0; i < data.length; i++) {
+            memory.store(i, data[i]);
+        }
+    }
+
+    /**
+     * Converts a text program of binary instruction lines into a program image
+     * with entry slot 0, no register image and an empty data segment.
+     * 
+     * @param source	the text program, such as <code>instructions.txt</code>
+     * @param target	the image file to write
+     * @throws IOException	if the text program is malformed or a file cannot be accessed
+     */
+    public static void convert(Path source, Path target) throws IOException {
+        new ProgramImage(0, null, MappedProgramLoader.load(source), new int[0]).write(target);
+    }
+
+    /**
+     * Converts a text program into a program image:
+     * <code>java mipssim.swain91.git.ProgramImage instructions.txt instructions.mipsb</code>.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ProgramImage <instructions.txt> <image file>");
+            System.exit(2);
+        }
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+    }
+}
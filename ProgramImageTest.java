@@ -0,0 +1,124 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ProgramImage} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class ProgramImageTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting ProgramImage.java tests...");
+	}
+	
+	@Test
+	void shouldRoundTrip() throws IOException {
+		int[] registers = new int[32];
+		registers[5] = -7;
+		ProgramImage image = new ProgramImage(1, registers, new int[] { 0x2000000a, 0x00000014 }, new int[] { 3, 4 });
+		Path file = temp(".mipsb");
+		image.write(file);
+		ProgramImage test = ProgramImage.read(file);
+		
+		assertEquals(1, test.getEntry());
+		assertArrayEquals(registers, test.getRegisters());
+		assertArrayEquals(new int[] { 0x2000000a, 0x00000014 }, test.getText());
+		assertArrayEquals(new int[] { 3, 4 }, test.getData());
+	}
+	
+	@Test
+	void shouldConvertTextProgram() throws IOException {
+		Path source = temp(".txt");
+		Files.write(source, ("00100000000000000000000000001010\n"
+				+ "00000000000000000000000000010100\n").getBytes(StandardCharsets.US_ASCII));
+		Path target = temp(".mipsb");
+		ProgramImage.convert(source, target);
+		ProgramImage test = ProgramImage.read(target);
+		
+		assertEquals(0, test.getEntry());
+		assertEquals(null, test.getRegisters());
+		assertArrayEquals(new int[] { 0x2000000a, 0x00000014 }, test.getText());
+		assertEquals(0, test.getData().length);
+		assertEquals(ProgramImage.HEADER_SIZE + 8, Files.size(target));
+	}
+	
+	@Test
+	void shouldLoadIntoComputer() {
+		int[] registers = new int[32];
+		registers[1] = 5;
+		ProgramImage image = new ProgramImage(1, registers, new int[] {
+				InstructionString.parseWord("00100000000000000000000000001010"),
+				InstructionString.parseWord("01011100001000100000000000000000") }, new int[] { 0, 0, 0, 0, 0, 42 });
+		Computer test = new Computer();
+		image.loadInto(test);
+		test.run();
+		
+		assertEquals(0, test.getGpr()[0]);
+		assertEquals(42, test.getGpr()[2]);
+		assertEquals(42, test.getMem()[5]);
+	}
+	
+	@Test
+	void shouldRejectOtherFiles() throws IOException {
+		Path file = temp(".mipsb");
+		Files.write(file, "00100000000000000000000000001010\n".getBytes(StandardCharsets.US_ASCII));
+		
+		assertThrows(IOException.class, () -> ProgramImage.read(file));
+	}
+	
+	@Test
+	void shouldRejectTruncatedImage() throws IOException {
+		Path file = temp(".mipsb");
+		new ProgramImage(0, null, new int[] { 1, 2, 3 }, new int[0]).write(file);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+		
+		assertThrows(IOException.class, () -> ProgramImage.read(file));
+	}
+	
+	@Test
+	void shouldRejectEntryOutsideText() throws IOException {
+		Path file = temp(".mipsb");
+		new ProgramImage(4, null, new int[] { 1, 2, 3 }, new int[0]).write(file);
+		
+		assertThrows(MalformedProgramException.class, () -> ProgramImage.read(file));
+		new ProgramImage(3, null, new int[] { 1, 2, 3 }, new int[0]).write(file);
+		assertEquals(3, ProgramImage.read(file).getEntry());
+	}
+	
+	@Test
+	void shouldEnterAppendedText() {
+		ProgramImage image = new ProgramImage(1, null, new int[] {
+				InstructionString.parseWord("00100000000000010000000000000001"),
+				InstructionString.parseWord("00100000000000100000000000000010") }, new int[0]);
+		Computer test = new Computer();
+		test.insertWord(InstructionString.parseWord("00100000000000110000000000000011"));
+		image.loadInto(test);
+		
+		assertEquals(2, test.getPc());
+		test.run();
+		assertEquals(0, test.getGpr()[1]);
+		assertEquals(2, test.getGpr()[2]);
+		assertEquals(0, test.getGpr()[3]);
+	}
+	
+	private static Path temp(String suffix) throws IOException {
+		Path file = Files.createTempFile("program", suffix);
+		file.toFile().deleteOnExit();
+		return file;
+	}
+}
@@ -0,0 +1,73 @@
+package mipssim.swain91.git;
+
+/**
+ * A pass over the predecoded program of a {@link Computer} that runs once each
+ * time the program changes, and proves which <code>jump</code>,
+ * <code>beq</code> and <code>bne</code> instructions may skip the check of
+ * their target.
+ *
+ * <p>
+ * The target check is the only runtime check the pass removes. A branch or
+ * jump is proven safe when its target is an instruction of the program. The
+ * instruction count only grows while a program is loaded, so a target that is
+ * in range when the pass runs stays in range. The core ALU instructions are
+ * marked safe too, since they have no check to remove. Every other instruction
+ * keeps its runtime checks: <code>jr</code>, whose target is a register value,
+ * <code>lw</code> and <code>sw</code>, whose address is a register value plus
+ * an offset and is checked against the data memory every time they run,
+ * unknown operations and the instructions of an {@link InstructionExtension}.
+ *
+ * <p>
+ * A slot loaded with lazy decoding is not proven safe until it is decoded, the
+ * first time it runs, when {@link Computer} verifies that slot alone.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+final class ProgramVerifier {
+
+    private ProgramVerifier() {}
+
+    /**
+     * Verifies every instruction of a program.
+     *
+     * @param computer	the computer whose loaded program is verified
+     * @param safe		set for each instruction slot to <code>true</code> if it is
+     * 					proven safe, at least as long as the program
+     */
+    static void verify(Computer computer, boolean[] safe) {
+        int ic = computer.getInstructionCount();
+        for (int slot = 0; slot < ic; slot++) {
+            safe[slot] = verify(computer, slot);
+        }
+    }
+
+    /**
+     * Verifies one instruction, for example when a lazily loaded slot is decoded.
+     *
+     * @param computer	the computer whose loaded program is verified
+     * @param slot		an instruction slot of the program
+     * @return			<code>true</code> if the instruction in the slot is proven safe
+     */
+    static boolean verify(Computer computer, int slot) {
+        int ic = computer.getInstructionCount();
+        int target = computer.getImm()[slot];
+        switch (computer.getOp()[slot]) {
+            case Predecoder.ADD:
+            case Predecoder.ADDU:
+            case Predecoder.AND:
+            case Predecoder.OR:
+            case Predecoder.ADDI:
+            case Predecoder.ADDIU:
+            case Predecoder.ANDI:
+            case Predecoder.ORI:
+                return true;
+            case Predecoder.JUMP:
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                return target >= 0 && target < ic;
+            default:
+                return false;
+        }
+    }
+}
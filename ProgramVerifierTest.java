@@ -0,0 +1,90 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ProgramVerifier} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class ProgramVerifierTest {
+
+	private static final String[] PROGRAM = {
+			"00100000001000010000000000000001", // addi $1, $1, 1
+			"00010100001000100000000000000000", // bne  $1, $2, 0
+			"00010000000000000000000000000101", // beq  $0, $0, 5
+			"00001000000000000000000000110010", // jump 50
+			"01011100000000110000000000000000", // lw   $3, 0($0)
+			"10101100000000110000000000000001", // sw   $3, 1($0)
+			"00000000101000000000000000001000", // jr   $5
+			"11111100000000000000000000000000"  // unknown
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting ProgramVerifier.java tests...");
+	}
+
+	@Test
+	void shouldMarkProvenInstructions() {
+		Computer computer = load(PROGRAM);
+
+		boolean[] test = new boolean[PROGRAM.length];
+		ProgramVerifier.verify(computer, test);
+
+		assertEquals("[true, true, true, false, false, false, false, false]", Arrays.toString(test));
+	}
+
+	@Test
+	void shouldVerifyForwardTargetOnceLoaded() {
+		Computer computer = load(new String[] {
+				"00001000000000000000000000000010", // jump 2
+				"00100000001000010000000000000001"  // addi $1, $1, 1
+		});
+		assertFalse(computer.isVerified(0));
+
+		computer.insertWord(InstructionString.parseWord("00100000010000100000000000000001")); // addi $2, $2, 1
+		computer.run();
+
+		assertTrue(computer.isVerified(0));
+		assertEquals(0, computer.getRegister(1));
+		assertEquals(1, computer.getRegister(2));
+	}
+
+	@Test
+	void shouldMatchCheckedRun() {
+		for (String[] program : new String[][] { TestPrograms.aluProgram(), TestPrograms.branchProgram() }) {
+			Computer expected = load(program);
+			Computer actual = load(program);
+			expected.setRegister(2, 1000);
+			actual.setRegister(2, 1000);
+			while (expected.getPc() < expected.getInstructionCount()) {
+				expected.fetch();
+				expected.execute();
+			}
+			actual.run();
+
+			assertEquals(expected.getPc(), actual.getPc());
+			assertEquals(expected.getRetired(), actual.getRetired());
+			for (int i = 0; i < 32; i++) {
+				assertEquals(expected.getRegister(i), actual.getRegister(i), "$" + i);
+			}
+		}
+	}
+
+	private static Computer load(String[] program) {
+		Computer computer = new Computer();
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		return computer;
+	}
+}
@@ -9,26 +9,21 @@ package mipssim.swain91.git;
  */
 public class RegisterInstruction implements Instruction {
 	
-    private InstructionString instructionString;
-    private String opcode;
-    private String function;
+    private final InstructionString instructionString;
     private String name;
-    private int shift;
-    private int destination;
-    private int source;
-    private int target;
+    private final int shift;
+    private final int destination;
+    private final int source;
+    private final int target;
 
     public RegisterInstruction(InstructionString is) {
         this.instructionString = is;
-        this.opcode = is.parseOpcode();
-        this.function = is.parseFunction();
         this.shift = is.parseShift();
         this.destination = is.parseDestination();
         this.source = is.parseSource();
         this.target = is.parseTarget();
 
-        int op = (int) Long.parseLong(this.opcode, 2);
-        determineName(op);
+        determineName(is.parseOpcodeValue());
     }
 
     @Override
@@ -38,10 +33,10 @@ public class RegisterInstruction implements Instruction {
 
     @Override
     public String getOpcode() {
-        return this.opcode;
+        return this.instructionString.parseOpcode();
     }
 
-    public String getFunction() { return this.function; }
+    public String getFunction() { return this.instructionString.parseFunction(); }
 
     public String getName() { return this.name; }
 
@@ -62,28 +57,7 @@ public class RegisterInstruction implements Instruction {
 
     @Override
     public void determineName(int opcode) {
-        int function = (int) Long.parseLong(this.function, 2);
-        if (opcode == 0) {
-            switch (function) {
-                case 8:
-                    this.name = "jr";
-                    break;
-                case 20:
-                    this.name = "add";
-                    break;
-                case 21:
-                    this.name = "addu";
-                    break;
-                case 24:
-                    this.name = "and";
-                    break;
-                case 25:
-                    this.name = "or";
-                    break;
-                default:
-                    break;
-            }
-        }
+        this.name = InstructionSet.name("R", opcode, this.instructionString.parseFunctionValue());
     }
 
     @Override
@@ -0,0 +1,26 @@
+package mipssim.swain91.git;
+
+/**
+ * The reason a bounded run of a {@link Computer} returned.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ * @see Computer#run(long, long, java.util.concurrent.TimeUnit)
+ */
+public enum RunStatus {
+
+    /**
+     * The instruction pointer moved past the last instruction.
+     */
+    HALTED,
+
+    /**
+     * The instruction budget was used up before the program halted.
+     */
+    BUDGET_EXHAUSTED,
+
+    /**
+     * The deadline passed before the program halted.
+     */
+    TIMED_OUT
+}
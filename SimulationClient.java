@@ -0,0 +1,198 @@
+package mipssim.swain91.git;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A connection to a {@link SimulationServer} on the same host, which sends it
+ * programs to run and reads back their results. Requests on one client are
+ * answered one at a time, so a client should be used by one thread at a time;
+ * open more clients to run programs in parallel.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class SimulationClient implements AutoCloseable {
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    /**
+     * Connects to a server on the loopback address.
+     *
+     * @param port	the port the server listens on
+     * @throws IOException	if the server cannot be reached
+     */
+    public SimulationClient(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    /**
+     * Runs a program until it halts.
+     *
+     * @param image	the program, its entry slot and its initial registers and memory
+     * @return		the result of the run
+     * @throws IOException	if the server cannot be reached or rejects the program
+     */
+    public Result run(ProgramImage image) throws IOException {
+        return run(image, Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs a program until it halts, a number of instructions have executed,
+     * or a timeout passes, whichever comes first.
+     *
+     * @param image		the program, its entry slot and its initial registers and memory
+     * @param budget	the most instructions to execute
+     * @param timeout	the longest time to run, or <code>Long.MAX_VALUE</code> for no limit
+     * @param unit		the unit of the timeout
+     * @return			the result of the run
+     * @throws IOException	if the server cannot be reached or rejects the program
+     */
+    public Result run(ProgramImage image, long budget, long timeout, TimeUnit unit) throws IOException {
+        ByteBuffer request = ByteBuffer.allocate(8 + 8 + image.encodedSize()).order(ByteOrder.LITTLE_ENDIAN);
+        request.putLong(budget).putLong(unit.toNanos(timeout));
+        image.encode(request);
+        SimulationServer.writeFrame(out, request.flip());
+
+        ByteBuffer response = SimulationServer.readFrame(in);
+        if (response == null)
+            throw new EOFException("Server closed the connection");
+        int status = response.get() & 0xff;
+        if (status == SimulationServer.ERROR) {
+            byte[] message = new byte[response.remaining()];
+            response.get(message);
+            throw new IOException("Server rejected the program: " + new String(message, StandardCharsets.UTF_8));
+        }
+        return new Result(RunStatus.values()[status], response);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * The outcome of running one program on the server.
+     */
+    public static final class Result {
+
+        private final RunStatus status;
+        private final long retired;
+        private final long runNanos;
+        private final int pc;
+        private final int[] registers;
+        private final int[] memory;
+
+        Result(RunStatus status, ByteBuffer response) {
+            this.status = status;
+            this.retired = response.getLong();
+            this.runNanos = response.getLong();
+            this.pc = response.getInt();
+            this.registers = new int[ProgramImage.REGISTER_COUNT];
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] = response.getInt();
+            }
+            this.memory = new int[response.getInt()];
+            for (int i = 0; i < memory.length; i++) {
+                memory[i] = response.getInt();
+            }
+        }
+
+        public RunStatus getStatus() { return this.status; }
+
+        /**
+         * @return	the number of instructions the program executed
+         */
+        public long getRetired() { return this.retired; }
+
+        /**
+         * @return	the time the server took to load and run the program, in nanoseconds
+         */
+        public long getRunNanos() { return this.runNanos; }
+
+        public int getPc() { return this.pc; }
+
+        public int[] getRegisters() { return this.registers; }
+
+        public int[] getMemory() { return this.memory; }
+
+        /**
+         * @return	the result as one line of JSON
+         */
+        public String toJson() {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("{\"status\":\"").append(status == RunStatus.HALTED ? "ok" : status.name().toLowerCase()).append('"');
+            sb.append(",\"retired\":").append(retired);
+            sb.append(",\"runNanos\":").append(runNanos);
+            sb.append(",\"pc\":").append(pc);
+            append(sb.append(",\"registers\":"), registers);
+            append(sb.append(",\"memory\":"), memory);
+            return sb.append('}').toString();
+        }
+
+        private static void append(StringBuilder sb, int[] words) {
+            sb.append('[');
+            for (int i = 0; i < words.length; i++) {
+                if (i > 0)
+                    sb.append(',');
+                sb.append(words[i]);
+            }
+            sb.append(']');
+        }
+    }
+
+    /**
+     * Runs a program on a server and prints the result as JSON.
+     *
+     * <pre>
+     * SimulationClient &lt;program&gt; [--port n] [--budget instructions] [--timeout milliseconds]
+     * </pre>
+     *
+     * Files ending in <code>.mipsb</code> are sent as they are, anything else
+     * is read as binary instruction lines.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SimulationClient <program> [--port n] [--budget instructions]"
+                    + " [--timeout milliseconds]");
+            System.exit(2);
+        }
+        int port = SimulationServer.DEFAULT_PORT;
+        long budget = Long.MAX_VALUE;
+        long timeout = Long.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length)
+                port = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--budget") && i + 1 < args.length)
+                budget = Long.parseLong(args[++i]);
+            else if (args[i].equals("--timeout") && i + 1 < args.length)
+                timeout = Long.parseLong(args[++i]);
+            else
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+
+        Path file = Paths.get(args[0]);
+        ProgramImage image = file.toString().endsWith(".mipsb")
+                ? ProgramImage.read(file)
+                : new ProgramImage(0, null, MappedProgramLoader.load(file), new int[0]);
+        try (SimulationClient client = new SimulationClient(port)) {
+            System.out.println(client.run(image, budget, timeout, TimeUnit.MILLISECONDS).toJson());
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package mipssim.swain91.git;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs many independent {@link Computer} machines at once on a fork-join pool.
+ * Machines share no mutable state, so throughput grows with the number of
+ * worker threads up to the number of cores.
+ * 
+ * <p>
+ * Machines can also be scheduled in time slices with
+ * {@link #submit(Computer, long)}. Each one runs for a quantum of instructions
+ * and then goes to the back of a shared run queue, so a long or runaway program
+ * cannot hold a worker while other machines wait, and it stops when its future
+ * is cancelled.
+ * 
+ * <p>
+ * With {@link #setCounting(boolean)} on, every machine the pool runs gets
+ * {@link ExecutionCounters}, and {@link #getCounters()} adds up the counts of
+ * finished and running machines whenever it is read.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class SimulationPool implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final Queue<Scheduled> runQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger drainers = new AtomicInteger();
+
+    private volatile boolean counting = false;
+    private final ExecutionCounters finished = new ExecutionCounters();
+    private final Map<ExecutionCounters, ExecutionCounters> running = new ConcurrentHashMap<>();
+    private volatile long countingSince = System.nanoTime();
+
+    /**
+     * The pool-wide counts at the last reset of {@link #getCounters()}, taken
+     * away when they are read.
+     */
+    private volatile ExecutionCounters zero = new ExecutionCounters();
+
+    /**
+     * Creates a pool with one worker per available processor.
+     */
+    public SimulationPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism	the number of worker threads
+     */
+    public SimulationPool(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Runs a machine on the pool.
+     * 
+     * @param computer	a machine with its program loaded
+     * @return			a future completed with the machine once it has run
+     */
+    public CompletableFuture<Computer> submit(Computer computer) {
+        return CompletableFuture.supplyAsync(() -> {
+            run(computer, Long.MAX_VALUE, Long.MAX_VALUE);
+            return computer;
+        }, pool);
+    }
+
+    /**
+     * Runs a machine on the calling thread, counting it in the pool's counters.
+     * Meant for tasks that run on the pool, such as those given to
+     * {@link #supply(Supplier)}.
+     * 
+     * @param computer		a machine with its program loaded
+     * @param budget		the most instructions to execute
+     * @param timeoutNanos	the longest time to run, in nanoseconds
+     * @return				why the run returned
+     */
+    RunStatus run(Computer computer, long budget, long timeoutNanos) {
+        ExecutionCounters baseline = attach(computer);
+        try {
+            return computer.run(budget, timeoutNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            detach(computer, baseline);
+        }
+    }
+
+    /**
+     * Runs a machine on the pool a quantum at a time, returning it to the back of
+     * the run queue after each quantum until it halts. Cancelling the future
+     * stops the machine at the end of its current quantum; it can then be
+     * resumed with another run.
+     * 
+     * @param computer	a machine with its program loaded
+     * @param quantum	the instructions to run before giving up the worker
+     * @return			a future completed with the machine once it has halted
+     */
+    public CompletableFuture<Computer> submit(Computer computer, long quantum) {
+        Scheduled machine = new Scheduled(computer, quantum);
+        ExecutionCounters baseline = attach(computer);
+        machine.result.whenComplete((result, e) -> detach(computer, baseline));
+        runQueue.offer(machine);
+        if (acquireDrainer())
+            pool.execute(this::drain);
+        return machine.result;
+    }
+
+    /**
+     * Runs a task on the pool, such as loading and running a machine together.
+     * 
+     * @param task	the work to run
+     * @return		a future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, pool);
+    }
+
+    /**
+     * Runs every machine on the pool and waits for all of them to finish.
+     * 
+     * @param computers	machines with their programs loaded
+     * @return			the machines in the order given, after running
+     */
+    public List<Computer> runAll(Collection<Computer> computers) {
+        List<CompletableFuture<Computer>> futures = new ArrayList<>(computers.size());
+        for (Computer computer : computers) {
+            futures.add(submit(computer));
+        }
+        List<Computer> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Computer> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Turns counting on or off for machines submitted from now on. Turning it on
+     * also restarts the time {@link #getCounters()} measures throughput over.
+     * 
+     * @param on	whether machines should be counted
+     */
+    public void setCounting(boolean on) {
+        if (on && !counting)
+            countingSince = System.nanoTime();
+        counting = on;
+    }
+
+    /**
+     * Returns the counts of every machine the pool has run while counting was
+     * on, added up when read. Its instructions per second is the throughput of
+     * the whole pool since counting was turned on or the counts were reset. A
+     * reset only records the current totals as the new zero, so it never writes
+     * counts a running machine is updating.
+     * 
+     * @return	a live view of the pool-wide counts, suitable for
+     * 			{@link ExecutionCounters#register(ExecutionCountersMXBean, String)}
+     */
+    public ExecutionCountersMXBean getCounters() {
+        return new ExecutionCountersMXBean() {
+            @Override
+            public long getRetired() {
+                return sinceReset().getRetired();
+            }
+
+            @Override
+            public long getRunNanos() {
+                return sinceReset().getRunNanos();
+            }
+
+            @Override
+            public double getInstructionsPerSecond() {
+                long elapsed = System.nanoTime() - countingSince;
+                return elapsed <= 0 ? 0 : sinceReset().getRetired() * 1e9 / elapsed;
+            }
+
+            @Override
+            public Map<String, Long> getOperationCounts() {
+                return sinceReset().getOperationCounts();
+            }
+
+            @Override
+            public void reset() {
+                zero = total();
+                countingSince = System.nanoTime();
+            }
+        };
+    }
+
+    private ExecutionCounters sinceReset() {
+        ExecutionCounters total = total();
+        total.subtract(zero);
+        return total;
+    }
+
+    /**
+     * Adds up finished machines and the progress of running ones. A machine
+     * that finishes during the read may be missed or counted twice, which is
+     * acceptable for monitoring.
+     */
+    private ExecutionCounters total() {
+        ExecutionCounters total = new ExecutionCounters();
+        synchronized (finished) {
+            total.add(finished);
+        }
+        for (Map.Entry<ExecutionCounters, ExecutionCounters> entry : running.entrySet()) {
+            total.add(entry.getKey());
+            total.subtract(entry.getValue());
+        }
+        return total;
+    }
+
+    /**
+     * Gives a machine counters if counting is on, and notes what they held
+     * before this run so that a machine run twice is not counted twice.
+     * 
+     * @return	the counts before this run, or <code>null</code> if the machine is not counted
+     */
+    private ExecutionCounters attach(Computer computer) {
+        ExecutionCounters counters = computer.getCounters();
+        if (counters == null) {
+            if (!counting)
+                return null;
+            counters = new ExecutionCounters();
+            computer.setCounters(counters);
+        }
+        ExecutionCounters baseline = new ExecutionCounters();
+        baseline.add(counters);
+        running.put(counters, baseline);
+        return baseline;
+    }
+
+    private void detach(Computer computer, ExecutionCounters baseline) {
+        if (baseline == null)
+            return;
+        ExecutionCounters counters = computer.getCounters();
+        running.remove(counters);
+        synchronized (finished) {
+            finished.add(counters);
+            finished.subtract(baseline);
+        }
+    }
+
+    /**
+     * Runs quanta from the run queue until it is empty. A worker's own task
+     * queue would run a requeued machine again before anything submitted from
+     * outside, so time-sliced machines share one queue in first in, first out
+     * order instead, drained by at most one task per worker.
+     */
+    private void drain() {
+        while (true) {
+            Scheduled machine = runQueue.poll();
+            if (machine == null) {
+                drainers.decrementAndGet();
+                // A machine offered while this drainer was stopping must not be stranded
+                if (runQueue.isEmpty() || !acquireDrainer())
+                    return;
+                continue;
+            }
+            if (machine.result.isDone())
+                continue;
+            try {
+                if (machine.computer.run(machine.quantum) == RunStatus.HALTED)
+                    machine.result.complete(machine.computer);
+                else
+                    runQueue.offer(machine);
+            } catch (RuntimeException e) {
+                machine.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private boolean acquireDrainer() {
+        int count;
+        while ((count = drainers.get()) < pool.getParallelism()) {
+            if (drainers.compareAndSet(count, count + 1))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * A machine waiting in the run queue.
+     */
+    private static final class Scheduled {
+
+        final Computer computer;
+        final long quantum;
+        final CompletableFuture<Computer> result = new CompletableFuture<>();
+
+        Scheduled(Computer computer, long quantum) {
+            this.computer = computer;
+            this.quantum = quantum;
+        }
+    }
+
+    /**
+     * Stops accepting machines and waits for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,83 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SimulationPool} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class SimulationPoolTest {
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting SimulationPool.java tests...");
+	}
+	
+	@Test
+	void shouldRunMachinesIndependently() {
+		List<Computer> computers = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			computers.add(loopProgram((i + 1) * 100));
+		}
+		
+		try (SimulationPool test = new SimulationPool(4)) {
+			List<Computer> results = test.runAll(computers);
+			
+			for (int i = 0; i < results.size(); i++) {
+				assertSame(computers.get(i), results.get(i));
+				assertEquals((i + 1) * 100, results.get(i).getRegister(1));
+				assertEquals(2, results.get(i).getPc());
+			}
+		}
+	}
+	
+	@Test
+	void shouldSubmitMachine() {
+		try (SimulationPool test = new SimulationPool(2)) {
+			assertEquals(5000, test.submit(loopProgram(5000)).join().getRegister(1));
+		}
+	}
+	
+	@Test
+	void shouldShareWorkerWithRunawayMachine() {
+		Computer runaway = new Computer();
+		runaway.insertWord(InstructionString.parseWord("00001000000000000000000000000000"));
+		
+		try (SimulationPool test = new SimulationPool(1)) {
+			CompletableFuture<Computer> stuck = test.submit(runaway, 10000);
+			List<CompletableFuture<Computer>> loops = new ArrayList<>();
+			for (int i = 1; i <= 10; i++) {
+				loops.add(test.submit(loopProgram(i * 10000), 10000));
+			}
+			for (int i = 0; i < loops.size(); i++) {
+				assertEquals((i + 1) * 10000, loops.get(i).join().getRegister(1));
+			}
+			
+			assertTrue(!stuck.isDone());
+			stuck.cancel(false);
+		}
+		assertTrue(runaway.getRetired() > 0);
+	}
+	
+	/**
+	 * Builds a two instruction loop that increments $1 until it equals $2.
+	 */
+	private static Computer loopProgram(int iterations) {
+		Computer computer = new Computer();
+		computer.insertWord(InstructionString.parseWord("00100000001000010000000000000001"));
+		computer.insertWord(InstructionString.parseWord("00010100001000100000000000000000"));
+		computer.setRegister(2, iterations);
+		return computer;
+	}
+}
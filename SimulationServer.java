@@ -0,0 +1,295 @@
+package mipssim.swain91.git;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
+/**
+ * A long-running simulator that accepts programs over a loopback socket, so a
+ * run pays neither JVM startup nor warm-up: the run loop stays compiled from
+ * one request to the next. Programs run on a {@link SimulationPool}, on
+ * machines that are {@link Computer#reset() reset} and reused rather than
+ * created for each request, and that decode each instruction lazily.
+ *
+ * <p>
+ * A client sends request frames and receives one response frame for each, in
+ * order, on the same connection; {@link SimulationClient} does this. Every
+ * frame is a 4 byte length followed by that many bytes, and every number is
+ * little-endian, as in a {@link ProgramImage}:
+ *
+ * <pre>
+ * request:  [ 8 bytes budget ][ 8 bytes timeout ns ][ program image ]
+ * response: [ 1 byte status ][ 8 bytes retired ][ 8 bytes run ns ][ 4 bytes pc ]
+ *           [ 32 register words ][ 4 bytes memory words ][ memory words ]
+ * error:    [ 1 byte 255 ][ UTF-8 message ]
+ * </pre>
+ *
+ * <p>
+ * The program image is laid out as a <code>.mipsb</code> file. The status is
+ * the ordinal of the {@link RunStatus} the run returned, and a budget or
+ * timeout of <code>Long.MAX_VALUE</code> means no limit. A request whose image
+ * is malformed or does not fit the machine gets an error response, and the
+ * connection stays open.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class SimulationServer implements AutoCloseable {
+
+    /**
+     * The port the server listens on when none is given.
+     */
+    public static final int DEFAULT_PORT = 7878;
+
+    /**
+     * The status byte of an error response.
+     */
+    static final int ERROR = 255;
+
+    /**
+     * The largest frame either side accepts, to reject a corrupt length
+     * before allocating for it.
+     */
+    static final int MAX_FRAME = 16 << 20;
+
+    private final SimulationPool pool;
+    private final ServerSocket socket;
+    private final Queue<Computer> machines = new ConcurrentLinkedQueue<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Thread acceptor;
+    private volatile boolean closed = false;
+
+    /**
+     * Starts a server listening on the loopback address.
+     *
+     * @param pool	the pool that runs the programs, which the server does not close
+     * @param port	the port to listen on, or 0 for any free port
+     * @throws IOException	if the port cannot be bound
+     */
+    public SimulationServer(SimulationPool pool, int port) throws IOException {
+        this.pool = pool;
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(this::accept, "mipssim-server");
+        acceptor.start();
+    }
+
+    /**
+     * @return	the port the server listens on
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed. Each connection is served
+     * on its own thread, which only waits for frames; the programs run on the
+     * pool.
+     */
+    private void accept() {
+        while (!closed) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (IOException e) {
+                if (!closed)
+                    System.err.println("Failed to accept a connection: " + e);
+                continue;
+            }
+            connections.add(connection);
+            if (closed) {
+                close(connection);
+                return;
+            }
+            Thread thread = new Thread(() -> serve(connection),
+                    "mipssim-connection-" + connectionCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Answers the requests of one connection in order until the client closes it.
+     */
+    private void serve(Socket connection) {
+        try (InputStream in = new BufferedInputStream(connection.getInputStream());
+                OutputStream out = new BufferedOutputStream(connection.getOutputStream())) {
+            connection.setTcpNoDelay(true);
+            ByteBuffer request;
+            while ((request = readFrame(in)) != null) {
+                ByteBuffer body = request;
+                writeFrame(out, pool.supply(() -> simulate(body)).join());
+            }
+        } catch (IOException e) {
+            // The client closed the connection or sent a frame that is not valid
+        } finally {
+            connections.remove(connection);
+            close(connection);
+        }
+    }
+
+    /**
+     * Loads and runs the program of a request on a reused machine.
+     *
+     * @param request	the request body
+     * @return			the response body
+     */
+    private ByteBuffer simulate(ByteBuffer request) {
+        Computer computer = machines.poll();
+        if (computer == null) {
+            computer = new Computer();
+            computer.setLazyDecoding(true);
+        }
+        long start = System.nanoTime();
+        try {
+            long budget = request.getLong();
+            long timeoutNanos = request.getLong();
+            ProgramImage.decode(request, "Request").loadInto(computer);
+            RunStatus status = pool.run(computer, budget, timeoutNanos);
+            return response(status, computer, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            byte[] message = e.toString().getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(1 + message.length).put((byte) ERROR).put(message).flip();
+        } finally {
+            computer.reset();
+            machines.offer(computer);
+        }
+    }
+
+    private static ByteBuffer response(RunStatus status, Computer computer, long runNanos) {
+        DataMemory memory = computer.getMemory();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 + 4 + 4 * ProgramImage.REGISTER_COUNT + 4 + 4 * memory.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) status.ordinal())
+                .putLong(computer.getRetired())
+                .putLong(runNanos)
+                .putInt(computer.getPc());
+        for (int i = 0; i < ProgramImage.REGISTER_COUNT; i++) {
+            buffer.putInt(computer.getRegister(i));
+        }
+        buffer.putInt(memory.size());
+        for (int i = 0; i < memory.size(); i++) {
+            buffer.putInt(memory.load(i));
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads one frame.
+     *
+     * @param in	the stream to read from
+     * @return		the frame body, little-endian, or <code>null</code> if the
+     * 				stream ended before the frame started
+     * @throws IOException	if the stream ends inside a frame or its length is not valid
+     */
+    static ByteBuffer readFrame(InputStream in) throws IOException {
+        byte[] header = new byte[4];
+        int read = in.readNBytes(header, 0, header.length);
+        if (read == 0)
+            return null;
+        if (read < header.length)
+            throw new EOFException("Stream ended inside a frame header");
+        int length = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if (length < 0 || length > MAX_FRAME)
+            throw new IOException("Invalid frame length " + length);
+        byte[] body = new byte[length];
+        if (in.readNBytes(body, 0, length) < length)
+            throw new EOFException("Stream ended inside a frame of " + length + " bytes");
+        return ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes and flushes one frame.
+     *
+     * @param out	the stream to write to
+     * @param body	an array-backed buffer holding the frame body from its position to its limit
+     * @throws IOException	if the frame cannot be written
+     */
+    static void writeFrame(OutputStream out, ByteBuffer body) throws IOException {
+        byte[] header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(body.remaining()).array();
+        out.write(header);
+        out.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        out.flush();
+    }
+
+    private static void close(Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // Nothing is left to do with a connection that fails to close
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and waits for the
+     * accepting thread to finish. Requests already running on the pool
+     * finish, but their responses are not sent.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+        for (Socket connection : connections) {
+            close(connection);
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a server from the command line until the process is stopped.
+     *
+     * <pre>
+     * SimulationServer [--port n] [--threads n]
+     * </pre>
+     *
+     * The pool's execution counters are published over JMX as
+     * <code>mipssim.swain91.git:type=ExecutionCounters,name="server"</code>.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length)
+                port = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--threads") && i + 1 < args.length)
+                threads = Integer.parseInt(args[++i]);
+            else
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+
+        SimulationPool pool = new SimulationPool(threads);
+        pool.setCounting(true);
+        ObjectName mbean = ExecutionCounters.register(pool.getCounters(), "server");
+        SimulationServer server = new SimulationServer(pool, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // The process is exiting anyway
+            }
+            ExecutionCounters.unregister(mbean);
+            pool.close();
+        }));
+        System.err.printf("Listening on %s:%d with %d threads%n",
+                InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), threads);
+    }
+}
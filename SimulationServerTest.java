@@ -0,0 +1,130 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SimulationServer} class.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class SimulationServerTest {
+
+	private static final int[] LOOP = {
+			InstructionString.parseWord("00100000000000100000000000001010"), // addi $2, $0, 10
+			InstructionString.parseWord("00100000001000010000000000000001"), // addi $1, $1, 1
+			InstructionString.parseWord("10101100001000010000000000000000"), // sw   $1, 0($1)
+			InstructionString.parseWord("00010100001000100000000000000001")  // bne  $1, $2, 1
+	};
+
+	private SimulationPool pool;
+	private SimulationServer server;
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting SimulationServer.java tests...");
+	}
+
+	@BeforeEach
+	void start() throws IOException {
+		pool = new SimulationPool(2);
+		server = new SimulationServer(pool, 0);
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		server.close();
+		pool.close();
+	}
+
+	@Test
+	void shouldRunProgram() throws IOException {
+		try (SimulationClient client = new SimulationClient(server.getPort())) {
+			SimulationClient.Result test = client.run(new ProgramImage(0, null, LOOP, new int[0]));
+
+			assertEquals(RunStatus.HALTED, test.getStatus());
+			assertEquals(31, test.getRetired());
+			assertEquals(4, test.getPc());
+			assertEquals(10, test.getRegisters()[1]);
+			assertEquals(64, test.getMemory().length);
+			assertEquals(10, test.getMemory()[10]);
+			assertTrue(test.toJson().startsWith("{\"status\":\"ok\",\"retired\":31,"));
+		}
+	}
+
+	@Test
+	void shouldResetReusedMachines() throws IOException {
+		int[] registers = new int[32];
+		registers[5] = 7;
+		try (SimulationClient client = new SimulationClient(server.getPort())) {
+			SimulationClient.Result first = client.run(new ProgramImage(0, registers, LOOP, new int[] { 3, 4 }));
+			SimulationClient.Result second = client.run(new ProgramImage(0, null, new int[] { LOOP[1] }, new int[0]));
+
+			assertEquals(7, first.getRegisters()[5]);
+			assertEquals(3, first.getMemory()[0]);
+			assertEquals(1, second.getRetired());
+			assertEquals(1, second.getRegisters()[1]);
+			assertEquals(0, second.getRegisters()[5]);
+			assertArrayEquals(new int[64], second.getMemory());
+		}
+	}
+
+	@Test
+	void shouldStopAtBudget() throws IOException {
+		int[] runaway = { InstructionString.parseWord("00001000000000000000000000000000") }; // jump 0
+		try (SimulationClient client = new SimulationClient(server.getPort())) {
+			SimulationClient.Result test = client.run(new ProgramImage(0, null, runaway, new int[0]),
+					100000, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+			assertEquals(RunStatus.BUDGET_EXHAUSTED, test.getStatus());
+			assertEquals(100000, test.getRetired());
+		}
+	}
+
+	@Test
+	void shouldRejectProgramAndKeepConnection() throws IOException {
+		try (SimulationClient client = new SimulationClient(server.getPort())) {
+			IOException test = assertThrows(IOException.class,
+					() -> client.run(new ProgramImage(0, null, LOOP, new int[65])));
+
+			assertTrue(test.getMessage().contains("does not fit"), test.getMessage());
+			assertEquals(RunStatus.HALTED, client.run(new ProgramImage(0, null, LOOP, new int[0])).getStatus());
+		}
+	}
+
+	@Test
+	void shouldServeClientsInParallel() throws Exception {
+		List<CompletableFuture<SimulationClient.Result>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(CompletableFuture.supplyAsync(() -> {
+				try (SimulationClient client = new SimulationClient(server.getPort())) {
+					SimulationClient.Result result = null;
+					for (int j = 0; j < 20; j++) {
+						result = client.run(new ProgramImage(0, null, LOOP, new int[0]));
+					}
+					return result;
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}));
+		}
+
+		for (CompletableFuture<SimulationClient.Result> result : results) {
+			assertEquals(31, result.get(10, TimeUnit.SECONDS).getRetired());
+		}
+	}
+}
@@ -1,40 +1,58 @@
 package mipssim.swain91.git;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * Driver class that instantiates a MIPS simulator and an instruction loader (ROM BIOS).
  * 
+ * <p>
+ * The program file may be given as the first argument, and defaults to
+ * <code>src/instructions.txt</code>. Files ending in <code>.mipsb</code> are
+ * loaded as a {@link ProgramImage}, anything else as binary instruction lines.
+ * The program is decoded lazily, one instruction the first time it runs, so
+ * only the number of instructions is printed before the run, not the listing.
+ * 
+ * <p>
+ * With <code>--batch</code> as the first argument the remaining arguments are
+ * passed to {@link BatchRunner}, which runs a directory or manifest of programs.
+ * With <code>--serve</code> they are passed to {@link SimulationServer}, which
+ * runs programs sent to it over a loopback socket until it is stopped.
+ * 
  * @author Samuel Servane
  * @version 1.3
  */
 public final class Simulator {
 	
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
     	
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            SimulationServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         ComputerInstance computer = ComputerInstance.INSTANCE;
-        InstructionFactory instructionFactory = InstructionFactory.getInstance();
+        computer.setLazyDecoding(true);
 
+        String file = args.length > 0 ? args[0] : "src/instructions.txt";
         try {
-            File file = new File("src/instructions.txt");
-            Scanner sc = new Scanner(file);
-            while (sc.hasNextLine()) {
-                computer.insertInstruction(instructionFactory.createInstruction(new InstructionString(sc.nextLine())));
+            if (file.endsWith(".mipsb")) {
+                computer.load(ProgramImage.read(Paths.get(file)));
+            } else {
+                int[] program = MappedProgramLoader.load(Paths.get(file));
+                computer.load(program, program.length);
             }
-            sc.close();
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             e.printStackTrace();
         }
 
-        computer.fetch();
         System.out.println();
-        System.out.println("Instructions:");
-        computer.displayInstructions();
-        while (computer.getPc() < computer.getInstructionCount()) {
-            computer.execute();
-            computer.fetch();
-        }
+        System.out.println("Instructions: " + computer.getInstructionCount());
+        computer.run();
         System.out.println();
         System.out.println("Registers:");
         computer.displayRegisters();
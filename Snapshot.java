@@ -0,0 +1,69 @@
+package mipssim.swain91.git;
+
+/**
+ * The saved state of a {@link Computer}: its instruction pointer, registers,
+ * including HI and LO, program and data memory. A snapshot never changes after
+ * it is taken, so one snapshot can be restored any number of times, from any
+ * thread.
+ * 
+ * <p>
+ * The program arrays are shared with the computer the snapshot was taken from,
+ * and the data memory is a fork of its memory. Computers restored from the
+ * snapshot copy the program the first time they insert an instruction and copy
+ * memory pages the first time they write to them.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ * @see Computer#snapshot()
+ */
+public final class Snapshot {
+
+    final int pc;
+    final long retired;
+    final int[] gpr;
+    final int hi;
+    final int lo;
+    final int ic;
+    final Instruction[] instructions;
+    final int[] words;
+    final int[] op;
+    final int[] rs;
+    final int[] rt;
+    final int[] rd;
+    final int[] imm;
+    final DataMemory memory;
+
+    Snapshot(int pc, long retired, int[] gpr, int hi, int lo, int ic, Instruction[] instructions, int[] words,
+            int[] op, int[] rs, int[] rt, int[] rd, int[] imm, DataMemory memory) {
+        this.pc = pc;
+        this.retired = retired;
+        this.gpr = gpr;
+        this.hi = hi;
+        this.lo = lo;
+        this.ic = ic;
+        this.instructions = instructions;
+        this.words = words;
+        this.op = op;
+        this.rs = rs;
+        this.rt = rt;
+        this.rd = rd;
+        this.imm = imm;
+        this.memory = memory;
+    }
+
+    public int getPc() {
+        return this.pc;
+    }
+
+    public int getInstructionCount() {
+        return this.ic;
+    }
+
+    /**
+     * @param register	a register number from 0 to 31
+     * @return			the value of the register when the snapshot was taken
+     */
+    public int getRegister(int register) {
+        return gpr[register];
+    }
+}
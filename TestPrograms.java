@@ -0,0 +1,45 @@
+package mipssim.swain91.git;
+
+/**
+ * Sample programs shared by the test classes. Each loops until <code>$1</code>
+ * reaches <code>$2</code>, so a test sets the trip count in <code>$2</code>.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+final class TestPrograms {
+
+    private TestPrograms() {}
+
+    /**
+     * A loop of seven arithmetic and logic instructions closed by a bne.
+     */
+    static String[] aluProgram() {
+        return new String[] {
+                "00100000001000010000000000000001", // addi $1, $1, 1
+                "00000000011000010001100000010100", // add  $3, $3, $1
+                "00000000011000010010000000011000", // and  $4, $3, $1
+                "00000000100000010010100000011001", // or   $5, $4, $1
+                "00000000101000110011000000010101", // addu $6, $5, $3
+                "00110000110001110000000011111111", // andi $7, $6, 255
+                "00110100111010000000000000000001", // ori  $8, $7, 1
+                "00100101001010010000000000000011", // addiu $9, $9, 3
+                "00010100001000100000000000000000"  // bne  $1, $2, 0
+        };
+    }
+
+    /**
+     * A loop where four of every five instructions are a beq, bne or jump.
+     */
+    static String[] branchProgram() {
+        return new String[] {
+                "00100000001000010000000000000001", // addi $1, $1, 1
+                "00010000001000100000000000000110", // beq  $1, $2, 6
+                "00001000000000000000000000000100", // jump 4
+                "00001000000000000000000000000000", // jump 0
+                "00010100001000000000000000000101", // bne  $1, $0, 5
+                "00001000000000000000000000000000", // jump 0
+                "00100001010010100000000000000001"  // addi $10, $10, 1
+        };
+    }
+}
@@ -0,0 +1,266 @@
+package mipssim.swain91.git;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A flight recorder of the last instructions a {@link Computer} retired. Each
+ * entry holds the instruction slot, the raw instruction word, the value it
+ * produced and, for loads and stores, the memory address. The value is the
+ * destination register for arithmetic, logic and loads, the stored word for
+ * stores and the next instruction pointer for branches and jumps; the
+ * destination register itself is decoded from the word. Instructions of an
+ * {@link InstructionExtension} are described the same way.
+ *
+ * <p>
+ * Entries live in a preallocated <code>int[]</code> ring, four words each, so
+ * recording allocates nothing and the oldest entries are overwritten once the
+ * ring is full. A computer without a recorder runs its plain loop and pays
+ * nothing.
+ *
+ * <p>
+ * {@link #dump(Path)} writes the retained entries, oldest first, to a
+ * little-endian binary file:
+ *
+ * <pre>
+ * [ 4 bytes ][ 2 bytes ][ 2 bytes  ][ 4 bytes ][ 8 bytes  ]
+ * [  magic  ][ version ][ reserved ][ entries ][ recorded ]
+ * [ entries x [ pc ][ word ][ value ][ address ] ]
+ * </pre>
+ *
+ * {@link #decode(Path)} turns such a file back into text, one line per entry,
+ * using the <code>toString()</code> of each {@link Instruction}.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public final class TraceRecorder {
+
+    static final int MAGIC = 0x4352544d; // "MTRC"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    private static final int ENTRY_WORDS = 4;
+
+    private final int[] ring;
+    private final int mask;
+    private long recorded = 0;
+
+    /**
+     * @param capacity	the number of entries to keep, rounded up to a power of two
+     */
+    public TraceRecorder(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 26)
+            throw new IllegalArgumentException("Invalid trace capacity " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.ring = new int[size * ENTRY_WORDS];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Records one retired instruction, overwriting the oldest entry when full.
+     *
+     * @param pc		the instruction slot
+     * @param word		the instruction as a packed <code>int</code>
+     * @param value		the value the instruction produced
+     * @param address	the memory address of a load or store
+     */
+    void record(int pc, int word, int value, int address) {
+        int at = (int) (recorded & mask) * ENTRY_WORDS;
+        ring[at] = pc;
+        ring[at + 1] = word;
+        ring[at + 2] = value;
+        ring[at + 3] = address;
+        recorded++;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return	the number of instructions recorded since the last clear, including overwritten ones
+     */
+    public long getRecorded() {
+        return this.recorded;
+    }
+
+    /**
+     * @return	the number of entries retained
+     */
+    public int size() {
+        return (int) Math.min(recorded, mask + 1);
+    }
+
+    public void clear() {
+        recorded = 0;
+    }
+
+    /**
+     * @param index	an entry from 0, the oldest retained, to {@link #size()} - 1
+     */
+    public int getPc(int index) {
+        return ring[offset(index)];
+    }
+
+    public int getWord(int index) {
+        return ring[offset(index) + 1];
+    }
+
+    public int getValue(int index) {
+        return ring[offset(index) + 2];
+    }
+
+    public int getAddress(int index) {
+        return ring[offset(index) + 3];
+    }
+
+    private int offset(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Trace entry " + index + " out of " + size());
+        return (int) ((recorded - size() + index) & mask) * ENTRY_WORDS;
+    }
+
+    /**
+     * Writes the retained entries, oldest first, to a binary trace file.
+     *
+     * @param path	the file to write, replaced if it exists
+     * @throws IOException	if the file cannot be written
+     */
+    public void dump(Path path) throws IOException {
+        int entries = size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * ENTRY_WORDS * entries)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putInt(entries)
+                .putLong(recorded);
+        IntBuffer words = buffer.asIntBuffer();
+        int first = (int) ((recorded - entries) & mask);
+        int tail = Math.min(entries, mask + 1 - first);
+        words.put(ring, first * ENTRY_WORDS, tail * ENTRY_WORDS);
+        words.put(ring, 0, (entries - tail) * ENTRY_WORDS);
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a binary trace file back as text, one line per entry, oldest first.
+     * Each line holds the sequence number of the instruction, its slot, the
+     * instruction and its effect.
+     *
+     * @param path	a file written by {@link #dump(Path)}
+     * @return		the decoded lines
+     * @throws IOException	if the file cannot be read or is not a trace
+     */
+    public static List<String> decode(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new IOException(path + " is too short to be a trace");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC)
+                throw new IOException(path + " is not a trace");
+            if (buffer.getShort(4) != VERSION)
+                throw new IOException(path + " has unsupported version " + buffer.getShort(4));
+            int entries = buffer.getInt(8);
+            long recorded = buffer.getLong(12);
+            if (entries < 0 || size != HEADER_SIZE + 4L * ENTRY_WORDS * entries)
+                throw new IOException(path + " has an entry count that does not match its length");
+
+            buffer.position(HEADER_SIZE);
+            IntBuffer words = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            InstructionFactory factory = InstructionFactory.getInstance();
+            List<String> lines = new ArrayList<>(entries);
+            long sequence = recorded - entries;
+            for (int i = 0; i < entries; i++) {
+                int pc = words.get();
+                int word = words.get();
+                int value = words.get();
+                int address = words.get();
+                lines.add(sequence++ + " pc=" + pc + " " + factory.createInstruction(word) + " | "
+                        + effect(word, value, address));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Describes what an instruction did from its word and recorded value.
+     */
+    static String effect(int word, int value, int address) {
+        int operation = Predecoder.operation(word);
+        switch (operation) {
+            case Predecoder.ADD:
+            case Predecoder.ADDU:
+            case Predecoder.AND:
+            case Predecoder.OR:
+                return "$" + Predecoder.destination(word) + " = " + value;
+            case Predecoder.ADDI:
+            case Predecoder.ADDIU:
+            case Predecoder.ANDI:
+            case Predecoder.ORI:
+                return "$" + Predecoder.target(word) + " = " + value;
+            case Predecoder.LW:
+                return "$" + Predecoder.target(word) + " = " + value + " from mem[" + address + "]";
+            case Predecoder.SW:
+                return "mem[" + address + "] = " + value;
+            case Predecoder.JR:
+            case Predecoder.JUMP:
+            case Predecoder.BEQ:
+            case Predecoder.BNE:
+                return "pc -> " + value;
+            default:
+                return extensionEffect(InstructionSet.extension(operation), word, value, address);
+        }
+    }
+
+    /**
+     * Describes an extension instruction, choosing the register the way
+     * {@link Computer} chose the value it recorded.
+     */
+    private static String extensionEffect(ExtensionInstruction extension, int word, int value, int address) {
+        if (extension == null)
+            return "no-op";
+        if (extension.isBranch())
+            return "pc -> " + value;
+        if (extension.isStore())
+            return "mem[" + address + "] = " + value;
+        if (extension.isLoad())
+            return "$" + Predecoder.target(word) + " = " + value + " from mem[" + address + "]";
+        if (extension.getType().equals("R"))
+            return "$" + Predecoder.destination(word) + " = " + value;
+        return "$" + Predecoder.target(word) + " = " + value;
+    }
+
+    /**
+     * Prints a binary trace file as text.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: TraceRecorder <trace file>");
+            System.exit(2);
+        }
+        for (String line : decode(Paths.get(args[0]))) {
+            System.out.println(line);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package mipssim.swain91.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.sun.management.ThreadMXBean;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link TraceRecorder} class.
+ * 
+ * @author Samuel Servane
+ * @version 1.3
+ */
+public class TraceRecorderTest {
+
+	private static final String[] MEMORY = {
+			"00100000000000010000000000000111", // addi $1, $0, 7
+			"10101100000000010000000000000011", // sw   $1, 3($0)
+			"01011100000000100000000000000011", // lw   $2, 3($0)
+			"00010100001000100000000000000000"  // bne  $1, $2, 0
+	};
+
+	@BeforeAll
+	static void setup() {
+		System.out.println("Conducting TraceRecorder.java tests...");
+	}
+	
+	@Test
+	void shouldKeepLastEntries() {
+		Computer computer = loopProgram(10);
+		TraceRecorder test = new TraceRecorder(4);
+		computer.setTrace(test);
+		computer.run();
+		
+		assertEquals(20, test.getRecorded());
+		assertEquals(4, test.size());
+		assertEquals(0, test.getPc(0));
+		assertEquals(9, test.getValue(0));
+		assertEquals(1, test.getPc(1));
+		assertEquals(0, test.getValue(1));
+		assertEquals(10, test.getValue(2));
+		assertEquals(1, test.getPc(3));
+		assertEquals(2, test.getValue(3));
+		assertEquals(0x14220000, test.getWord(3));
+	}
+	
+	@Test
+	void shouldRecordMemoryAccesses() {
+		Computer computer = load(MEMORY);
+		TraceRecorder test = new TraceRecorder(16);
+		computer.setTrace(test);
+		computer.run();
+		
+		assertEquals(4, test.size());
+		assertEquals(7, test.getValue(1));
+		assertEquals(3, test.getAddress(1));
+		assertEquals(7, test.getValue(2));
+		assertEquals(3, test.getAddress(2));
+		assertEquals(4, test.getValue(3));
+	}
+	
+	@Test
+	void shouldRecordByteAccesses() {
+		Computer computer = new Computer(new ByteMemory(64));
+		for (String line : new String[] {
+				"00100000000000110000000000001000", // addi $3, $0, 8
+				"00100000000000010000000001000001", // addi $1, $0, 65
+				"01110000011000010000000000000001", // sb   $1, 1($3)
+				"01010000011000100000000000000001"  // lb   $2, 1($3)
+		}) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		TraceRecorder test = new TraceRecorder(16);
+		computer.setTrace(test);
+		computer.run();
+		
+		assertEquals(4, test.size());
+		assertEquals(0, test.getAddress(1));
+		assertEquals(65, test.getValue(2));
+		assertEquals(9, test.getAddress(2));
+		assertEquals(65, test.getValue(3));
+		assertEquals(9, test.getAddress(3));
+	}
+	
+	@Test
+	void shouldRecordSingleSteps() {
+		Computer computer = load(MEMORY);
+		TraceRecorder test = new TraceRecorder(16);
+		computer.setTrace(test);
+		computer.fetch();
+		computer.execute();
+		
+		assertEquals(1, test.size());
+		assertEquals(7, test.getValue(0));
+	}
+	
+	@Test
+	void shouldDumpAndDecode() throws IOException {
+		Computer computer = loopProgram(3);
+		computer.setTrace(new TraceRecorder(4));
+		computer.run();
+		Path file = Files.createTempFile("trace", ".bin");
+		file.toFile().deleteOnExit();
+		computer.getTrace().dump(file);
+		
+		List<String> lines = TraceRecorder.decode(file);
+		
+		assertEquals(20 + 16 * 4, Files.size(file));
+		assertEquals(4, lines.size());
+		assertEquals("2 pc=0 " + computer.getInstruction(0) + " | $1 = 2", lines.get(0));
+		assertEquals("3 pc=1 " + computer.getInstruction(1) + " | pc -> 0", lines.get(1));
+		assertEquals("5 pc=1 " + computer.getInstruction(1) + " | pc -> 2", lines.get(3));
+	}
+	
+	@Test
+	void shouldDecodeMemoryAccesses() throws IOException {
+		Computer computer = load(MEMORY);
+		computer.setTrace(new TraceRecorder(16));
+		computer.run();
+		Path file = Files.createTempFile("trace", ".bin");
+		file.toFile().deleteOnExit();
+		computer.getTrace().dump(file);
+		
+		List<String> lines = TraceRecorder.decode(file);
+		
+		assertEquals("1 pc=1 " + computer.getInstruction(1) + " | mem[3] = 7", lines.get(1));
+		assertEquals("2 pc=2 " + computer.getInstruction(2) + " | $2 = 7 from mem[3]", lines.get(2));
+	}
+	
+	@Test
+	void shouldDecodeExtensionInstructions() throws IOException {
+		Computer computer = new Computer(new ByteMemory(64));
+		for (String line : new String[] {
+				"00100000000000010000000001000001", // addi $1, $0, 65
+				"00100000000000100000000000000001", // addi $2, $0, 1
+				"00000000001000100001100000010110", // sub  $3, $1, $2
+				"01110000000000110000000000001001", // sb   $3, 9($0)
+				"01010000000001000000000000001001"  // lb   $4, 9($0)
+		}) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		computer.setTrace(new TraceRecorder(8));
+		computer.run();
+		Path file = Files.createTempFile("trace", ".bin");
+		file.toFile().deleteOnExit();
+		computer.getTrace().dump(file);
+		
+		List<String> lines = TraceRecorder.decode(file);
+		
+		assertEquals(5, lines.size());
+		assertTrue(lines.get(2).endsWith(" | $3 = 64"), lines.get(2));
+		assertTrue(lines.get(3).endsWith(" | mem[9] = 64"), lines.get(3));
+		assertTrue(lines.get(4).endsWith(" | $4 = 64 from mem[9]"), lines.get(4));
+	}
+	
+	@Test
+	void shouldRoundCapacity() {
+		assertEquals(8, new TraceRecorder(5).getCapacity());
+		assertEquals(8, new TraceRecorder(8).getCapacity());
+		assertThrows(IllegalArgumentException.class, () -> new TraceRecorder(0));
+	}
+	
+	@Test
+	void shouldRecordWithoutAllocating() {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		long id = Thread.currentThread().getId();
+		TraceRecorder test = new TraceRecorder(1024);
+		
+		for (int i = 0; i < 5; i++) {
+			Computer computer = loopProgram(100000);
+			computer.setTrace(test);
+			computer.run();
+		}
+		
+		Computer computer = loopProgram(1000000);
+		computer.setTrace(test);
+		long before = threads.getThreadAllocatedBytes(id);
+		computer.run();
+		long allocated = threads.getThreadAllocatedBytes(id) - before;
+		
+		assertEquals(1000000, computer.getRegister(1));
+		assertEquals(0, allocated, "bytes allocated while tracing");
+	}
+	
+	/**
+	 * Builds a two instruction loop that increments $1 until it equals $2.
+	 */
+	private static Computer loopProgram(int iterations) {
+		Computer computer = load(new String[] {
+				"00100000001000010000000000000001",
+				"00010100001000100000000000000000" });
+		computer.setRegister(2, iterations);
+		return computer;
+	}
+	
+	private static Computer load(String[] program) {
+		Computer computer = new Computer();
+		for (String line : program) {
+			computer.insertWord(InstructionString.parseWord(line));
+		}
+		return computer;
+	}
+}
@@ -0,0 +1,84 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the dispatch of {@link Computer#execute(int)} with a call through
+ * the {@link Operation} handler table of the program, on the ALU-heavy and
+ * branch-heavy loops of {@link ProgramBenchmarks}. Both run the same
+ * predecoded program through the same fetch loop, so only the dispatch
+ * differs. {@link Computer#run()} is the interpreter's own loop on the same
+ * program, for reference.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatchBenchmarks {
+
+    @Param({"loop", "branch"})
+    public String program;
+
+    @Param({"10000"})
+    public int iterations;
+
+    private Computer computer;
+
+    @Setup
+    public void setup() {
+        int[] words = ProgramBenchmarks.program(program, iterations);
+        computer = new Computer();
+        computer.load(words, words.length);
+    }
+
+    @Benchmark
+    public long execute() {
+        Computer c = computer;
+        c.setPc(0);
+        long retired = 0;
+        while (c.getPc() < c.getInstructionCount()) {
+            c.fetch();
+            c.execute(c.getPc() - 1);
+            retired++;
+        }
+        return retired;
+    }
+
+    @Benchmark
+    public long handlers() {
+        Computer c = computer;
+        Operation[] handlers = c.handlers();
+        c.setPc(0);
+        long retired = 0;
+        while (c.getPc() < c.getInstructionCount()) {
+            c.fetch();
+            int slot = c.getPc() - 1;
+            handlers[slot].execute(c, slot);
+            retired++;
+        }
+        return retired;
+    }
+
+    @Benchmark
+    public int run() {
+        computer.setPc(0);
+        computer.run();
+        return computer.getRegister(3);
+    }
+}
@@ -0,0 +1,74 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one fetch and {@link Computer#execute()} of a single instruction,
+ * for every operation the simulator supports. The computer holds only that
+ * instruction, and every branch or jump targets it, so each call executes the
+ * same slot in the same state.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ExecuteBenchmarks {
+
+    @Param({"add", "addu", "and", "or", "jr", "addi", "addiu", "andi", "ori", "lw", "sw", "beq", "bne", "jump"})
+    public String operation;
+
+    private Computer computer;
+
+    @Setup
+    public void setup() {
+        computer = new Computer();
+        computer.insertWord(InstructionString.parseWord(word(operation)));
+        computer.setRegister(1, 7);
+        computer.setRegister(2, 9);
+    }
+
+    @Benchmark
+    public int execute() {
+        computer.setPc(0);
+        computer.fetch();
+        computer.execute();
+        return computer.getPc();
+    }
+
+    static String word(String operation) {
+        switch (operation) {
+            case "add":   return "00000000001000100001100000010100"; // add  $3, $1, $2
+            case "addu":  return "00000000001000100001100000010101"; // addu $3, $1, $2
+            case "and":   return "00000000001000100001100000011000"; // and  $3, $1, $2
+            case "or":    return "00000000001000100001100000011001"; // or   $3, $1, $2
+            case "jr":    return "00000000000000000000000000001000"; // jr   $0
+            case "addi":  return "00100000001000110000000000000101"; // addi $3, $1, 5
+            case "addiu": return "00100100001000110000000000000101"; // addiu $3, $1, 5
+            case "andi":  return "00110000001000110000000000000101"; // andi $3, $1, 5
+            case "ori":   return "00110100001000110000000000000101"; // ori  $3, $1, 5
+            case "lw":    return "01011100000000110000000000000100"; // lw   $3, 4($0)
+            case "sw":    return "10101100000000010000000000000100"; // sw   $1, 4($0)
+            case "beq":   return "00010000000000000000000000000000"; // beq  $0, $0, 0
+            case "bne":   return "00010100001000000000000000000000"; // bne  $1, $0, 0
+            case "jump":  return "00001000000000000000000000000000"; // jump 0
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+}
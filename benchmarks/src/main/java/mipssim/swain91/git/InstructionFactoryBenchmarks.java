@@ -0,0 +1,86 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link InstructionFactory#createInstruction} for one instruction
+ * type at a time, both when the instruction is already in the factory's cache
+ * and when every call builds a new instruction.
+ *
+ * <p>
+ * The uncached benchmark cycles through {@value #WORDS} different words with
+ * a factory of two cache slots, so nearly every call misses.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InstructionFactoryBenchmarks {
+
+    private static final int WORDS = 4096;
+
+    @Param({"R", "I", "J"})
+    public String type;
+
+    private final int[] words = new int[WORDS];
+    private InstructionString cachedString;
+    private InstructionFactory shared;
+    private InstructionFactory tiny;
+    private int next;
+
+    @Setup
+    public void setup() {
+        int base;
+        switch (type) {
+            case "R":
+                base = InstructionString.parseWord("00000000000000000000000000010100"); // add  $0, $0, $0
+                break;
+            case "I":
+                base = InstructionString.parseWord("00100000000000000000000000000000"); // addi $0, $0, 0
+                break;
+            default:
+                base = InstructionString.parseWord("00001000000000000000000000000000"); // jump 0
+                break;
+        }
+        for (int i = 0; i < WORDS; i++) {
+            // Vary the rs, rt and rd fields of R-type words, the immediate or address of the others
+            words[i] = type.equals("R") ? base | (i << 11) : base | i;
+        }
+        shared = InstructionFactory.getInstance();
+        cachedString = new InstructionString(words[0]);
+        shared.createInstruction(words[0]);
+        tiny = new InstructionFactory(1);
+    }
+
+    @Benchmark
+    public Instruction cachedWord() {
+        return shared.createInstruction(words[0]);
+    }
+
+    @Benchmark
+    public Instruction cachedInstructionString() {
+        return shared.createInstruction(cachedString);
+    }
+
+    @Benchmark
+    public Instruction uncached() {
+        next = (next + 1) & (WORDS - 1);
+        return tiny.createInstruction(words[next]);
+    }
+}
@@ -0,0 +1,82 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures building an {@link InstructionString} from its binary text and from
+ * a packed word, and parsing its fields, for one instruction of each type.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InstructionStringBenchmarks {
+
+    @Param({"R", "I", "J"})
+    public String type;
+
+    private String bits;
+    private int word;
+    private InstructionString is;
+
+    @Setup
+    public void setup() {
+        switch (type) {
+            case "R":
+                bits = "00000000011000010001100000010100"; // add  $3, $3, $1
+                break;
+            case "I":
+                bits = "00100000001000011111111111111111"; // addi $1, $1, -1
+                break;
+            default:
+                bits = "00001000000000000000000000000100"; // jump 4
+                break;
+        }
+        word = InstructionString.parseWord(bits);
+        is = new InstructionString(word);
+    }
+
+    @Benchmark
+    public InstructionString constructFromBits() {
+        return new InstructionString(bits);
+    }
+
+    @Benchmark
+    public InstructionString constructFromWord() {
+        return new InstructionString(word);
+    }
+
+    @Benchmark
+    public void parseFields(Blackhole bh) {
+        bh.consume(is.parseOpcodeValue());
+        bh.consume(is.parseSource());
+        bh.consume(is.parseTarget());
+        bh.consume(is.parseDestination());
+        bh.consume(is.parseShift());
+        bh.consume(is.parseFunctionValue());
+        bh.consume(is.parseImmediateSigned());
+        bh.consume(is.parseJumpAddress());
+    }
+
+    @Benchmark
+    public String formatWord() {
+        return InstructionString.formatWord(word);
+    }
+}
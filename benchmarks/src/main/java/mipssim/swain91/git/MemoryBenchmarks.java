@@ -0,0 +1,71 @@
+package mipssim.swain91.git;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs a load and store loop on word addressed {@link ArrayMemory} and on
+ * big- and little-endian {@link ByteMemory}. Every access is an aligned word,
+ * at a word address in the array and at four times that byte address in the
+ * byte memories, so the programs retire the same instructions and the
+ * difference is the cost of the byte addressed word path.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MemoryBenchmarks {
+
+    @Param({"array", "big", "little"})
+    public String memory;
+
+    @Param({"10000"})
+    public int iterations;
+
+    private Computer computer;
+
+    @Setup
+    public void setup() {
+        boolean bytes = !memory.equals("array");
+        int address = bytes ? 6 : 5;
+        int[] words = {
+                ProgramBenchmarks.i(8, 0, 1, 0),          // addi  $1, $0, 0
+                ProgramBenchmarks.i(8, 0, 2, iterations), // addi  $2, $0, iterations
+                ProgramBenchmarks.i(8, 1, 1, 1),          // addi  $1, $1, 1
+                ProgramBenchmarks.i(12, 1, 5, 63),        // andi  $5, $1, 63
+                ProgramBenchmarks.r(5, 5, 6, 20),         // add   $6, $5, $5
+                ProgramBenchmarks.r(6, 6, 6, 20),         // add   $6, $6, $6
+                ProgramBenchmarks.i(23, address, 3, 0),   // lw    $3, 0($5 or $6)
+                ProgramBenchmarks.r(3, 1, 3, 20),         // add   $3, $3, $1
+                ProgramBenchmarks.i(43, address, 3, 0),   // sw    $3, 0($5 or $6)
+                ProgramBenchmarks.i(5, 1, 2, 2)           // bne   $1, $2, 2
+        };
+        computer = new Computer(bytes
+                ? new ByteMemory(64, memory.equals("big") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN)
+                : new ArrayMemory(64));
+        computer.load(words, words.length);
+    }
+
+    @Benchmark
+    public int run() {
+        computer.setPc(0);
+        computer.run();
+        return computer.getRegister(3);
+    }
+}
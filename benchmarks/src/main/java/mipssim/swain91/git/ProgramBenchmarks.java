@@ -0,0 +1,163 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs whole programs through a {@link Computer}, a computer with a
+ * {@link BlockCompiler}, one with an {@link InstructionFuser} and
+ * {@link ComputerInstance}, until they fall off the last instruction.
+ * Each program sets its own loop counter, so every run retires the same
+ * instructions.
+ *
+ * <ul>
+ * <li><code>loop</code> is ALU-heavy, eight ALU instructions and a bne every iteration.
+ * <li><code>memory</code> loads, adds and stores two words every iteration.
+ * <li><code>branch</code> is branch-heavy,
+ * where four of every five instructions are a beq, bne or jump.
+ * </ul>
+ *
+ * <p>
+ * ComputerInstance is one machine per JVM, so these benchmarks must run
+ * forked, which is the default.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProgramBenchmarks {
+
+    @Param({"loop", "memory", "branch"})
+    public String program;
+
+    @Param({"10000"})
+    public int iterations;
+
+    private Computer computer;
+    private Computer tiered;
+    private Computer fused;
+
+    @Setup
+    public void setup() {
+        int[] words = program(program, iterations);
+        computer = new Computer();
+        computer.load(words, words.length);
+        tiered = new Computer();
+        tiered.load(words, words.length);
+        tiered.setCompiler(new BlockCompiler());
+        fused = new Computer();
+        fused.load(words, words.length);
+        fused.setFuser(new InstructionFuser());
+
+        if (ComputerInstance.INSTANCE.getInstructionCount() != 0)
+            throw new IllegalStateException("ComputerInstance already holds a program; run the benchmarks forked");
+        ComputerInstance.INSTANCE.load(words, words.length);
+    }
+
+    @Benchmark
+    public int computer() {
+        computer.setPc(0);
+        computer.run();
+        return computer.getRegister(3);
+    }
+
+    @Benchmark
+    public int computerTiered() {
+        tiered.setPc(0);
+        tiered.run();
+        return tiered.getRegister(3);
+    }
+
+    @Benchmark
+    public int computerFused() {
+        fused.setPc(0);
+        fused.run();
+        return fused.getRegister(3);
+    }
+
+    @Benchmark
+    public int computerInstance() {
+        ComputerInstance.INSTANCE.setPc(0);
+        ComputerInstance.INSTANCE.run();
+        return ComputerInstance.INSTANCE.getPc();
+    }
+
+    /**
+     * Assembles one of the programs with a loop of the given trip count.
+     */
+    static int[] program(String name, int iterations) {
+        if (iterations <= 0 || iterations > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Iterations must fit an immediate: " + iterations);
+        switch (name) {
+            case "loop":
+                return new int[] {
+                        i(8, 0, 1, 0),          // addi  $1, $0, 0
+                        i(8, 0, 2, iterations), // addi  $2, $0, iterations
+                        i(8, 1, 1, 1),          // addi  $1, $1, 1
+                        r(3, 1, 3, 20),         // add   $3, $3, $1
+                        r(3, 1, 4, 24),         // and   $4, $3, $1
+                        r(4, 1, 5, 25),         // or    $5, $4, $1
+                        r(5, 3, 6, 21),         // addu  $6, $5, $3
+                        i(12, 6, 7, 255),       // andi  $7, $6, 255
+                        i(13, 7, 8, 1),         // ori   $8, $7, 1
+                        i(9, 9, 9, 3),          // addiu $9, $9, 3
+                        i(5, 1, 2, 2)           // bne   $1, $2, 2
+                };
+            case "memory":
+                return new int[] {
+                        i(8, 0, 1, 0),          // addi  $1, $0, 0
+                        i(8, 0, 2, iterations), // addi  $2, $0, iterations
+                        i(8, 1, 1, 1),          // addi  $1, $1, 1
+                        i(12, 1, 5, 63),        // andi  $5, $1, 63
+                        i(23, 5, 3, 0),         // lw    $3, 0($5)
+                        r(3, 1, 3, 20),         // add   $3, $3, $1
+                        i(43, 5, 3, 0),         // sw    $3, 0($5)
+                        i(23, 0, 4, 0),         // lw    $4, 0($0)
+                        r(4, 3, 4, 20),         // add   $4, $4, $3
+                        i(43, 0, 4, 0),         // sw    $4, 0($0)
+                        i(5, 1, 2, 2)           // bne   $1, $2, 2
+                };
+            case "branch":
+                return new int[] {
+                        i(8, 0, 1, 0),          // addi  $1, $0, 0
+                        i(8, 0, 2, iterations), // addi  $2, $0, iterations
+                        i(8, 1, 1, 1),          // addi  $1, $1, 1
+                        i(4, 1, 2, 8),          // beq   $1, $2, 8
+                        j(6),                   // jump  6
+                        j(2),                   // jump  2
+                        i(5, 1, 0, 7),          // bne   $1, $0, 7
+                        j(2),                   // jump  2
+                        i(8, 10, 10, 1)         // addi  $10, $10, 1
+                };
+            default:
+                throw new IllegalArgumentException("Unknown program " + name);
+        }
+    }
+
+    static int r(int source, int target, int destination, int function) {
+        return source << 21 | target << 16 | destination << 11 | function;
+    }
+
+    static int i(int opcode, int source, int target, int immediate) {
+        return opcode << 26 | source << 21 | target << 16 | (immediate & 0xffff);
+    }
+
+    private static int j(int address) {
+        return 2 << 26 | address;
+    }
+}
@@ -0,0 +1,79 @@
+package mipssim.swain91.git;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of running a short program through a
+ * {@link SimulationServer}, from sending the request to reading the result,
+ * against loading and running it on a new {@link Computer} in process. The
+ * difference is the cost of the loopback round trip and the hand-off to the
+ * pool. Both are far below the startup of a new JVM, which is what running
+ * each program with {@link Simulator} costs.
+ *
+ * <p>
+ * Sample time mode reports percentiles as well as the mean, since tail
+ * latency matters for a server.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ServerBenchmarks {
+
+    @Param({"loop"})
+    public String program;
+
+    @Param({"10", "1000"})
+    public int iterations;
+
+    private ProgramImage image;
+    private SimulationPool pool;
+    private SimulationServer server;
+    private SimulationClient client;
+
+    @Setup
+    public void setup() throws IOException {
+        image = new ProgramImage(0, null, ProgramBenchmarks.program(program, iterations), new int[0]);
+        pool = new SimulationPool(1);
+        server = new SimulationServer(pool, 0);
+        client = new SimulationClient(server.getPort());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+        pool.close();
+    }
+
+    @Benchmark
+    public long server() throws IOException {
+        return client.run(image).getRetired();
+    }
+
+    @Benchmark
+    public long inProcess() {
+        Computer computer = new Computer();
+        image.loadInto(computer);
+        computer.run();
+        return computer.getRetired();
+    }
+}
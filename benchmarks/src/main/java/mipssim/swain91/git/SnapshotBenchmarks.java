@@ -0,0 +1,69 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the cost of {@link Computer#fork()} grows with the size of data
+ * memory. Every page of a {@link PagedMemory} is written before the forks, and
+ * an {@link ArrayMemory} of the same size, which is copied whole, is the
+ * baseline. <code>forkAndWrite</code> also writes one word in each of 16 pages
+ * of the child, which copies those pages.
+ *
+ * <p>
+ * Run with <code>-prof gc</code> to see the bytes allocated by each fork.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx2g"})
+public class SnapshotBenchmarks {
+
+    private static final int WRITES = 16;
+
+    @Param({"paged", "array"})
+    public String memory;
+
+    @Param({"1024", "65536", "4194304"})
+    public int size;
+
+    private Computer computer;
+
+    @Setup
+    public void setup() {
+        DataMemory data = memory.equals("paged") ? new PagedMemory(size, 1024, Integer.MAX_VALUE) : new ArrayMemory(size);
+        for (int address = 0; address < size; address++) {
+            data.store(address, address);
+        }
+        computer = new Computer(data);
+    }
+
+    @Benchmark
+    public Computer fork() {
+        return computer.fork();
+    }
+
+    @Benchmark
+    public Computer forkAndWrite() {
+        Computer child = computer.fork();
+        for (int i = 0; i < WRITES; i++) {
+            child.getMemory().store((int) ((long) size * i / WRITES), -1);
+        }
+        return child;
+    }
+}
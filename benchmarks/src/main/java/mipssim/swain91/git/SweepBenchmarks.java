@@ -0,0 +1,81 @@
+package mipssim.swain91.git;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a {@link LaneSweep} with running one {@link Computer} per initial
+ * state, one after another. Every lane runs the ALU-heavy loop of
+ * {@link ProgramBenchmarks} without its first two instructions, with its own
+ * value of <code>$3</code>, and the trip count in <code>$2</code> varies by up
+ * to seven iterations so that the lanes diverge at the end.
+ *
+ * <p>
+ * The Vector API is an incubator module, so the forks run with
+ * <code>--add-modules jdk.incubator.vector</code>.
+ *
+ * @author Samuel Servane
+ * @version 1.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SweepBenchmarks {
+
+    @Param({"4096"})
+    public int lanes;
+
+    @Param({"2000"})
+    public int iterations;
+
+    private int[] program;
+
+    @Setup
+    public void setup() {
+        int[] loop = ProgramBenchmarks.program("loop", iterations);
+        program = new int[loop.length - 2];
+        System.arraycopy(loop, 2, program, 0, program.length);
+        // Branch back to the first instruction of the loop body
+        program[program.length - 1] = ProgramBenchmarks.i(5, 1, 2, 0);
+    }
+
+    @Benchmark
+    public long computers() {
+        long retired = 0;
+        for (int lane = 0; lane < lanes; lane++) {
+            Computer computer = new Computer();
+            computer.load(program, program.length);
+            computer.setRegister(2, iterations + lane % 8);
+            computer.setRegister(3, lane);
+            computer.run();
+            retired += computer.getRetired();
+        }
+        return retired;
+    }
+
+    @Benchmark
+    public long sweep() {
+        Computer computer = new Computer();
+        computer.load(program, program.length);
+        LaneSweep sweep = new LaneSweep(computer, lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            sweep.setRegister(lane, 2, iterations + lane % 8);
+            sweep.setRegister(lane, 3, lane);
+        }
+        sweep.run();
+        return sweep.getRetired();
+    }
+}